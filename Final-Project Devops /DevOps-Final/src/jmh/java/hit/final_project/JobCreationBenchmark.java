@@ -0,0 +1,44 @@
+package hit.final_project;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Cost of building a Job, with and without the BCrypt hash that JobService.createJob adds for a password
+// Run: mvn -Pbenchmark verify -DskipTests -Djmh.args="JobCreationBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobCreationBenchmark {
+
+    // BCrypt cost factor (jobs.hashing.bcrypt-strength) - each step doubles the hashing time
+    @Param({"4", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private LocalDateTime now;
+
+    @Setup
+    public void setup() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        now = LocalDateTime.now();
+    }
+
+    // Entity construction alone - the constructor no longer hashes
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Job newJob() {
+        return new Job("Benchmark Job", JobStatus.PENDING, now, now, JobType.BUILD, "already-hashed");
+    }
+
+    // Entity construction plus the single hash done for a job created with a password
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Job newJobWithHashedPassword() {
+        return new Job("Benchmark Job", JobStatus.PENDING, now, now, JobType.BUILD, passwordEncoder.encode("password"));
+    }
+}
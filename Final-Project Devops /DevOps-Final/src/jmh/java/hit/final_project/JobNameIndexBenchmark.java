@@ -0,0 +1,83 @@
+package hit.final_project;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// GET /api/jobs/search/name answered from JobNameIndex. The index is built once per trial from a repository stub
+// streaming generated names; the build time printed there is the startup cost at that many jobs
+// Run: mvn -Pbenchmark verify -DskipTests -Djmh.args="JobNameIndexBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class JobNameIndexBenchmark {
+
+    private static final String[] WORDS = {"build", "deploy", "test", "nightly", "release", "api", "web", "worker",
+            "billing", "search", "payments", "gateway", "migration", "backup", "report", "frontend"};
+
+    @Param({"1000000"})
+    private int jobs;
+
+    // Common word (early exit), two-word phrase (list intersection), rare name, one-character word prefix
+    @Param({"release", "worker migration", "backup 77777", "g"})
+    private String query;
+
+    private JobNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        JobRepository repository = (JobRepository) Proxy.newProxyInstance(JobRepository.class.getClassLoader(),
+                new Class<?>[]{JobRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("streamAllSummaries")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return LongStream.rangeClosed(1, jobs).mapToObj(id -> new JobDTO(id, name(id), JobStatus.PENDING,
+                            now, now, JobType.BUILD));
+                });
+        index = new JobNameIndex(repository, new NoTransactionManager());
+        long start = System.nanoTime();
+        index.build();
+        System.out.printf("%nIndexed %d jobs in %d ms%n", jobs, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Benchmark
+    public List<JobNameMatch> search() {
+        return index.search(query, 20);
+    }
+
+    // e.g. "nightly worker migration 4711"
+    private static String name(long id) {
+        int a = (int) (id % WORDS.length);
+        int b = (int) ((id / WORDS.length) % WORDS.length);
+        int c = (int) ((id * 31 / 7) % WORDS.length);
+        return WORDS[a] + " " + WORDS[b] + " " + WORDS[c] + " " + (id % 100_000);
+    }
+
+    // build() runs its scan in a read-only transaction; the stub repository needs none
+    private static class NoTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
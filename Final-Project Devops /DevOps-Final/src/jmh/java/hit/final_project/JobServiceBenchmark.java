@@ -0,0 +1,102 @@
+package hit.final_project;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// JobService writes and JobRepository finders against the in-memory H2 database, with the full Spring context
+// Run: mvn -Pbenchmark verify -DskipTests -Djmh.args="JobServiceBenchmark -prof gc"
+// (-prof gc adds gc.alloc.rate.norm, the bytes allocated per call - compare the entity and summary finders)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobServiceBenchmark {
+
+    private static final JobStatus[] STATUSES = {JobStatus.PENDING, JobStatus.IN_PROGRESS, JobStatus.COMPLETED};
+    private static final JobType[] JOB_TYPES = {JobType.BUILD, JobType.TEST, JobType.DEPLOY};
+
+    // Jobs in the table before measuring
+    @Param({"10000"})
+    private int jobs;
+
+    private ConfigurableApplicationContext context;
+    private JobService jobService;
+    private JobRepository jobRepository;
+    private LocalDateTime now;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(FinalProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE",
+                        "--jobs.hashing.bcrypt-strength=4", // Hashing cost is measured by JobCreationBenchmark
+                        "--jobs.executor.enabled=false", // Leave the Pending jobs alone
+                        "--logging.level.hit.final_project=WARN"); // Keep per-call logging out of the numbers
+        jobService = context.getBean(JobService.class);
+        jobRepository = context.getBean(JobRepository.class);
+        now = LocalDateTime.now();
+
+        List<Job> seed = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) {
+            seed.add(new Job("Job " + i, STATUSES[i % STATUSES.length], now.minusMinutes(i), now, JOB_TYPES[(i / STATUSES.length) % JOB_TYPES.length]));
+        }
+        jobService.createJobs(seed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Job createJob() {
+        return jobService.createJob("Benchmark Job", JobStatus.PENDING, now, now, JobType.BUILD, "password");
+    }
+
+    @Benchmark
+    public Object updateJob() {
+        long id = ThreadLocalRandom.current().nextLong(1, jobs + 1);
+        return jobService.updateJob(id, "Updated Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), JobType.BUILD, null);
+    }
+
+    @Benchmark
+    public List<Job> findByStatus() {
+        return jobRepository.findByStatus(JobStatus.PENDING);
+    }
+
+    // Same rows as findByStatus, without the password column and without managed entities
+    @Benchmark
+    public List<JobDTO> findSummariesByStatus() {
+        return jobRepository.findSummariesByStatus(JobStatus.PENDING);
+    }
+
+    @Benchmark
+    public List<Job> findByJobType() {
+        return jobRepository.findByJobType(JobType.BUILD);
+    }
+
+    @Benchmark
+    public List<Job> findByStatusAndJobType() {
+        return jobRepository.findByStatusAndJobType(JobStatus.PENDING, JobType.BUILD);
+    }
+
+    @Benchmark
+    public List<Job> findByDateRange() {
+        return jobRepository.findByDateRange(now.minusMinutes(100), now);
+    }
+
+    @Benchmark
+    public List<JobDTO> getJobsPage() {
+        return jobService.getJobsPage(ThreadLocalRandom.current().nextLong(jobs), 100);
+    }
+}
@@ -0,0 +1,54 @@
+package hit.final_project;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of logging, measured as a latency distribution (look at p0.99).
+// Each operation stands in for one request: a little CPU work plus the two INFO events an update logs.
+//   locationSync - the previous setup: synchronous file appender with caller location in the pattern
+//   sync         - synchronous, without caller location
+//   async        - the current setup: asynchronous loggers (log4j2.component.properties), no caller location
+// Run: mvn -Pbenchmark verify -DskipTests -Djmh.args="LoggingBenchmark"
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingBenchmark {
+
+    private static final String SYNC = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+    // Block instead of discarding when the ring buffer is full, so every event is really written
+    private static final String ASYNC = "-Dlog4j2.asyncQueueFullPolicy=Default";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingBenchmark.class);
+
+    private long id;
+
+    private void request() {
+        Blackhole.consumeCPU(20_000);
+        logger.info("Updating job with ID: {}", ++id);
+        logger.info("Job updated successfully with ID: {}", id);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {SYNC, "-Dlog4j2.configurationFile=log4j2-benchmark-location.xml"})
+    public void locationSync() {
+        request();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {SYNC, "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+    public void sync() {
+        request();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {ASYNC, "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+    public void async() {
+        request();
+    }
+}
@@ -0,0 +1,87 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Serialization of job lists, as full entities (with the password hash) and as JobDTO summaries,
+// in each response format the API offers (JSON, Smile, CBOR)
+// Run: mvn -Pbenchmark verify -DskipTests -Djmh.args="SerializationBenchmark -prof gc"
+// The payload size of each list, raw and gzipped as server.compression would send it, is printed once per trial
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // A real BCrypt hash is 60 characters
+    private static final String PASSWORD_HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<Job> jobs;
+    private List<JobDTO> summaries;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        // Same defaults as the application's message converters (see MessageConverterConfig)
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        LocalDateTime now = LocalDateTime.now();
+        jobs = new ArrayList<>(rows);
+        summaries = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            Job job = new Job("Job " + i, JobStatus.COMPLETED, now, now, JobType.BUILD, PASSWORD_HASH);
+            job.setId(i);
+            jobs.add(job);
+            summaries.add(new JobDTO(i, job.getJobName(), job.getStatus(), now, now, job.getJobType()));
+        }
+        byte[] entityBytes = serializeJobs();
+        byte[] summaryBytes = serializeSummaries();
+        System.out.printf("%n%d rows, %s - entities: %d bytes (%d gzipped), summaries: %d bytes (%d gzipped)%n",
+                rows, format, entityBytes.length, gzip(entityBytes).length, summaryBytes.length, gzip(summaryBytes).length);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeJobs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(jobs);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,70 @@
+package hit.final_project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestControllerAdvice // Translates exceptions thrown by the controllers into HTTP responses
+public class ApiExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    // Password hashing is saturated - ask the client to back off and retry
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceeded(HashingCapacityExceededException e) {
+        logger.warn("Rejecting request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    // The reactive stack's blocking scheduler is saturated (jobs.reactive.blocking-queue-capacity) - same as above
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleBlockingCapacityExceeded(RejectedExecutionException e) {
+        logger.warn("Rejecting request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server is busy, try again later");
+    }
+
+    // If-Match named a stale version, or another request updated the job between our read and write
+    @ExceptionHandler({JobVersionConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<String> handleVersionConflict(RuntimeException e) {
+        logger.debug("Rejecting conditional update: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Job was modified by another request");
+    }
+
+    // A path variable or request parameter that does not convert, e.g. an unknown status in /status/{status}
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleTypeMismatch(MethodArgumentTypeMismatchException e) {
+        logger.debug("Rejecting request: invalid {} '{}'", e.getName(), e.getValue());
+        Class<?> type = e.getRequiredType();
+        boolean label = isLabelled(type); // The message lists the valid labels
+        return ResponseEntity.badRequest().body(label ? e.getMostSpecificCause().getMessage() : "Invalid " + e.getName() + " '" + e.getValue() + "'");
+    }
+
+    // The reactive stack's counterpart of the above: WebFlux wraps conversion failures in ServerWebInputException
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<String> handleServerWebInput(ServerWebInputException e) {
+        logger.debug("Rejecting request: {}", e.getReason());
+        MethodParameter parameter = e.getMethodParameter();
+        Class<?> type = parameter != null ? parameter.getParameterType() : null;
+        boolean label = isLabelled(type);
+        return ResponseEntity.badRequest().body(label ? e.getMostSpecificCause().getMessage() : e.getReason());
+    }
+
+    // Types converted by label in WebConfig, whose conversion errors name the valid labels
+    private static boolean isLabelled(Class<?> type) {
+        return type == JobStatus.class || type == JobType.class
+                || type == JobHistogram.Bucket.class || type == JobHistogram.GroupBy.class;
+    }
+}
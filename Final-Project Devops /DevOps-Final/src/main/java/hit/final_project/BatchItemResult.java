@@ -0,0 +1,19 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+// Outcome of one job in a batch create request
+// index - position of the job in the request, status - HTTP status code for this job,
+// id - ID of the created job (null on failure), error - why the job was not created (null on success)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(int index, int status, Long id, String error) {
+
+    static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, HttpStatus.CREATED.value(), id, null);
+    }
+
+    static BatchItemResult failed(int index, HttpStatus status, String error) {
+        return new BatchItemResult(index, status.value(), null, error);
+    }
+}
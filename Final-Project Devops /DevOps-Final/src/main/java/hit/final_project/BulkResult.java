@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// Response of the bulk endpoints (DELETE /api/jobs, PATCH /api/jobs/status): how many jobs were changed
+public record BulkResult(int affected) {
+}
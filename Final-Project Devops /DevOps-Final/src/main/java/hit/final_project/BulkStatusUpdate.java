@@ -0,0 +1,8 @@
+package hit.final_project;
+
+import java.time.LocalDateTime;
+
+// Body of PATCH /api/jobs/status: move every job matching the filters to status "to".
+// Null filters match any value; at least one is required
+public record BulkStatusUpdate(JobStatus from, JobType jobType, LocalDateTime olderThan, JobStatus to) {
+}
@@ -0,0 +1,28 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+@Configuration
+@EnableCaching // Turns on @Cacheable / @CacheEvict in JobService
+// The cache provider is picked by spring.cache.type: Caffeine by default, Redis with the "redis" profile
+public class CacheConfig {
+
+    static final String JOBS_CACHE = "jobs"; // Job by ID
+
+    // Only used with spring.cache.type=redis - store jobs as JSON using the application's ObjectMapper
+    // (the TTL and other spring.cache.redis.* settings are kept)
+    @Bean
+    public RedisCacheManagerBuilderCustomizer jobsRedisCacheCustomizer(ObjectMapper objectMapper) {
+        return builder -> builder.withCacheConfiguration(JOBS_CACHE, builder.getCacheConfigurationFor(JOBS_CACHE)
+                .orElseGet(RedisCacheConfiguration::defaultCacheConfig)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(objectMapper, Job.class))));
+    }
+}
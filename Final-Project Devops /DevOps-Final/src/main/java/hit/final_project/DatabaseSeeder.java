@@ -2,11 +2,11 @@ package hit.final_project;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
 
@@ -18,18 +18,23 @@ import java.time.LocalDateTime;
 @Configuration // Allows methods to run at runtime and initializes the table
 public class DatabaseSeeder {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseSeeder.class);
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(); // Encrypts passwords
 
     // הערך המוחזר מהמטודה שמנוהל ע״ הסביבה
+    // Seeding can be turned off with jobs.seed.enabled=false (off in the "prod" profile; read at runtime, see StartupConfig)
     @Bean // The value returned from the method is managed by the Spring context
-    CommandLineRunner initDatabase(JobRepository jobRepository){
+    CommandLineRunner initDatabase(JobRepository jobRepository, PasswordHasher passwordHasher,
+                                   @Value("${jobs.seed.enabled:true}") boolean seedEnabled){
         return args -> {
+            if (!seedEnabled) {
+                logger.info("Database seeding disabled");
+                return;
+            }
             logger.info("Initializing database at runtime...");
 
             // Create jobs with initial data
-            Job job1 = new Job("Build Project", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Build", passwordEncoder.encode("password1"));
-            Job job2 = new Job("Deploy Project", "Pending", LocalDateTime.now(), LocalDateTime.now(), "Deploy", passwordEncoder.encode("password2"));
-            Job job3 = new Job("Test Project", "Completed", LocalDateTime.now(), LocalDateTime.now(), "Test", passwordEncoder.encode("password3"));
+            Job job1 = new Job("Build Project", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.BUILD, passwordHasher.hash("password1"));
+            Job job2 = new Job("Deploy Project", JobStatus.PENDING, LocalDateTime.now(), LocalDateTime.now(), JobType.DEPLOY, passwordHasher.hash("password2"));
+            Job job3 = new Job("Test Project", JobStatus.COMPLETED, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, passwordHasher.hash("password3"));
 
             // Save the jobs to the database
             jobRepository.save(job1);
@@ -0,0 +1,34 @@
+package hit.final_project;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket using the generic cell rate algorithm (GCRA).
+// The whole bucket state is one number - the theoretical arrival time (TAT) of the next request - so
+// admitting a request is a single compare-and-set instead of a lock around a token count and a timestamp
+final class GcraBucket {
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(Long.MIN_VALUE);
+
+    // Returns 0 when the request is admitted, otherwise the nanoseconds to wait before retrying
+    long tryAcquire(RateLimit limit, long nowNanos) {
+        return tryAcquire(limit, 1, nowNanos);
+    }
+
+    // Takes several permits at once. Admitted whenever one permit is free, even if the rest exceed the burst:
+    // the bucket then runs into debt and the client waits until it is paid off
+    long tryAcquire(RateLimit limit, int permits, long nowNanos) {
+        long interval = limit.emissionIntervalNanos();
+        long capacity = limit.capacityNanos();
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long start = Math.max(tat, nowNanos);
+            long wait = start + interval - nowNanos - capacity;
+            if (wait > 0) {
+                return wait;
+            }
+            long newTat = start + interval * permits;
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package hit.final_project;
+
+// Thrown when the password hashing queue is full; mapped to 503 Service Unavailable
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException() {
+        super("Password hashing capacity exceeded, try again later");
+    }
+}
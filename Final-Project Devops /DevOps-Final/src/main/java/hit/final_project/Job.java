@@ -3,42 +3,45 @@ package hit.final_project;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity // Save to SQL Table
-@Table(name = "app_job") // Table Name
+@Table(name = "app_job", indexes = { // Table Name
+        @Index(name = "idx_app_job_status_job_type", columnList = "status, jobType"), // Also serves status-only lookups
+        @Index(name = "idx_app_job_job_type", columnList = "jobType"),
+        @Index(name = "idx_app_job_created_at", columnList = "createdAt")
+})
 @Data // Auto-generates getters, setters, toString, etc.
 @NoArgsConstructor // Default constructor
 public class Job {
 
-    // Password encoder
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_job_seq")
+    @SequenceGenerator(name = "app_job_seq", sequenceName = "app_job_seq", allocationSize = 50) // One sequence call per 50 IDs (pooled optimizer)
     private Long id;
     private String jobName;
-    private String status;
+    private JobStatus status; // SMALLINT code (JobStatusConverter)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private String jobType;
+    private JobType jobType; // SMALLINT code (JobTypeConverter)
     private String password;
+    private LocalDateTime claimedAt; // When JobExecutor claimed the job (its lease, renewed while it holds the job)
+    @Version // Incremented on every update; a stale version fails the update instead of overwriting it
+    private Long version;
 
-    // Constructor without password
-    public Job(String jobName, String status, LocalDateTime createdAt, LocalDateTime updatedAt, String jobType) {
-        this(jobName, status, createdAt, updatedAt, jobType, UUID.randomUUID().toString());
+    // Constructor without password (the job has no credential)
+    public Job(String jobName, JobStatus status, LocalDateTime createdAt, LocalDateTime updatedAt, JobType jobType) {
+        this(jobName, status, createdAt, updatedAt, jobType, null);
     }
 
-    // Constructor with all fields
-    public Job(String jobName, String status, LocalDateTime createdAt, LocalDateTime updatedAt, String jobType, String password) {
+    // Constructor with all fields - the password must already be hashed (see PasswordHasher)
+    public Job(String jobName, JobStatus status, LocalDateTime createdAt, LocalDateTime updatedAt, JobType jobType, String password) {
         this.jobName = jobName;
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.jobType = jobType;
-        this.password = passwordEncoder.encode(password);
+        this.password = password;
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package hit.final_project;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity // Jobs moved out of app_job by JobArchiveService - read-only through the API
+@Table(name = "app_job_archive", indexes = {
+        @Index(name = "idx_app_job_archive_status_job_type", columnList = "status, jobType"),
+        @Index(name = "idx_app_job_archive_created_at", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+public class JobArchive {
+
+    @Id
+    private Long id; // Same ID the job had in app_job
+    private String jobName;
+    private JobStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private JobType jobType;
+    private String password;
+    private LocalDateTime archivedAt;
+}
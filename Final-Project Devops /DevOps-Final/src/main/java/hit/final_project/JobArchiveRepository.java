@@ -0,0 +1,24 @@
+package hit.final_project;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+// Read path for archived jobs (rows are written by JobRepository.copyToArchive)
+public interface JobArchiveRepository extends JpaRepository<JobArchive, Long> {
+
+    // Same columns as JobRepository.SELECT_SUMMARY - the password hash is never selected
+    String SELECT_SUMMARY = "SELECT new hit.final_project.JobDTO(a.id, a.jobName, a.status, a.createdAt, a.updatedAt, a.jobType) FROM JobArchive a ";
+
+    // Find the next page of archived job summaries after the given ID
+    @Query(SELECT_SUMMARY + "WHERE a.id > :afterId ORDER BY a.id")
+    List<JobDTO> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    // Find one archived job summary by ID
+    @Query(SELECT_SUMMARY + "WHERE a.id = :id")
+    Optional<JobDTO> findSummaryById(@Param("id") Long id);
+}
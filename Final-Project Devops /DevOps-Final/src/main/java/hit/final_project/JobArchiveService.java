@@ -0,0 +1,117 @@
+package hit.final_project;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+// Moves finished jobs out of app_job into app_job_archive so the hot table (and its indexes) stays small.
+// A scheduled run archives jobs in the configured statuses that have not been updated for the configured age,
+// one chunk per transaction: lock the chunk, copy it with INSERT ... SELECT, delete it from app_job.
+// Archived jobs are read through GET /api/jobs/archive
+public class JobArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(JobArchiveService.class);
+    private final JobRepository jobRepository;
+    private final JobArchiveRepository jobArchiveRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final Set<JobStatus> statuses;
+    private final Duration olderThan;
+    private final int chunkSize;
+
+    public JobArchiveService(JobRepository jobRepository, JobArchiveRepository jobArchiveRepository, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                             CacheManager cacheManager,
+                             @Value("${jobs.archive.enabled:true}") boolean enabled,
+                             @Value("${jobs.archive.statuses:Completed}") Set<JobStatus> statuses,
+                             @Value("${jobs.archive.older-than:30d}") Duration olderThan,
+                             @Value("${jobs.archive.chunk-size:500}") int chunkSize) {
+        this.jobRepository = jobRepository;
+        this.jobArchiveRepository = jobArchiveRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.statuses = statuses;
+        this.olderThan = olderThan;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.archive.interval-ms:3600000}", initialDelayString = "${jobs.archive.interval-ms:3600000}")
+    public void archiveDueJobs() {
+        if (enabled) {
+            archiveJobs(statuses, LocalDateTime.now().minus(olderThan));
+        }
+    }
+
+    // Archive every job in one of the statuses last updated before the cutoff; returns the number archived
+    public int archiveJobs(Collection<JobStatus> statuses, LocalDateTime cutoff) {
+        logger.debug("Archiving jobs with status in {} last updated before {}", statuses, cutoff);
+        int total = 0;
+        while (true) {
+            List<Job> archived = transactionTemplate.execute(status -> archiveChunk(statuses, cutoff));
+            if (archived == null || archived.isEmpty()) {
+                break;
+            }
+            total += archived.size();
+            Cache cache = cacheManager.getCache(CacheConfig.JOBS_CACHE);
+            for (Job job : archived) {
+                if (cache != null) {
+                    cache.evict(job.getId());
+                }
+                eventPublisher.publishEvent(JobChangeEvent.archived(job));
+            }
+            if (archived.size() < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archived {} jobs", total);
+        }
+        return total;
+    }
+
+    private List<Job> archiveChunk(Collection<JobStatus> statuses, LocalDateTime cutoff) {
+        List<Job> chunk = jobRepository.findArchivable(statuses, cutoff, Limit.of(chunkSize));
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+        List<Long> ids = chunk.stream().map(Job::getId).toList();
+        jobRepository.copyToArchive(ids, LocalDateTime.now());
+        jobRepository.deleteAllByIdIn(ids);
+        entityManager.clear(); // The loaded jobs no longer exist
+        return chunk;
+    }
+
+    // 1 - Retrieve one page of archived jobs with an ID greater than afterId, ordered by ID
+    public List<JobDTO> getArchivedJobsPage(long afterId, int limit) {
+        logger.debug("Retrieving up to {} archived jobs after ID: {}", limit, afterId);
+        return jobArchiveRepository.findSummariesAfterId(afterId, Limit.of(limit));
+    }
+
+    // 2 - Retrieve an archived job by ID
+    public Optional<JobDTO> getArchivedJobById(Long id) {
+        logger.debug("Retrieving archived job with ID: {}", id);
+        return jobArchiveRepository.findSummaryById(id);
+    }
+}
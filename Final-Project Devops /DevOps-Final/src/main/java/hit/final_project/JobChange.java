@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// A job change as delivered by the change feed, tagged with its position in the feed
+public record JobChange(long sequence, JobChangeEvent event) {
+}
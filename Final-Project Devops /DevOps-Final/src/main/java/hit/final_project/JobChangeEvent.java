@@ -0,0 +1,64 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// Raised by JobService after a job is created, updated or deleted (see JobChangeFeed).
+// status/jobType hold the values after the change and previousStatus/previousJobType the values before it;
+// a null means the value is unknown or does not apply (e.g. a PATCH that did not touch the field).
+// version is the job version jobName was read at, which orders events delivered out of order; null when unknown.
+// createdAt places the job in the histogram (JobHistogramCache); null when unknown
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobChangeEvent(Type type, Long jobId, String jobName, JobStatus status, JobType jobType,
+                             JobStatus previousStatus, JobType previousJobType, LocalDateTime occurredAt, Long version,
+                             LocalDateTime createdAt) {
+
+    // PASSWORD_CHANGED stays in the process: the change feed does not serve it and the job's visible fields are unchanged
+    public enum Type { CREATED, UPDATED, DELETED, ARCHIVED, PASSWORD_CHANGED }
+
+    static JobChangeEvent created(Job job) {
+        return new JobChangeEvent(Type.CREATED, job.getId(), job.getJobName(), job.getStatus(), job.getJobType(),
+                null, null, LocalDateTime.now(), job.getVersion(), job.getCreatedAt());
+    }
+
+    static JobChangeEvent updated(Job job, JobStatus previousStatus, JobType previousJobType) {
+        return new JobChangeEvent(Type.UPDATED, job.getId(), job.getJobName(), job.getStatus(), job.getJobType(),
+                previousStatus, previousJobType, LocalDateTime.now(), job.getVersion(), job.getCreatedAt());
+    }
+
+    // A PATCH does not load the job, so only the patched fields and the version it wrote are known
+    static JobChangeEvent patched(Long id, JobPatch patch, Long version) {
+        return new JobChangeEvent(Type.UPDATED, id, patch.jobName(), patch.status(), patch.jobType(),
+                null, null, LocalDateTime.now(), version, null);
+    }
+
+    // A status update written by JobStatusWriteBehind, possibly standing for several coalesced ones
+    static JobChangeEvent statusUpdated(Long id, String jobName, JobStatus status, JobType jobType, JobStatus previousStatus,
+                                        LocalDateTime createdAt) {
+        return new JobChangeEvent(Type.UPDATED, id, jobName, status, jobType, previousStatus, jobType, LocalDateTime.now(),
+                null, createdAt);
+    }
+
+    // Only the password (and with it the version) changed
+    static JobChangeEvent passwordChanged(Long id) {
+        return new JobChangeEvent(Type.PASSWORD_CHANGED, id, null, null, null, null, null, LocalDateTime.now(), null, null);
+    }
+
+    static JobChangeEvent deleted(Job job) {
+        return new JobChangeEvent(Type.DELETED, job.getId(), job.getJobName(), null, null,
+                job.getStatus(), job.getJobType(), LocalDateTime.now(), job.getVersion(), job.getCreatedAt());
+    }
+
+    // Removed by a bulk delete, which reads only the summary
+    static JobChangeEvent deleted(JobDTO job) {
+        return new JobChangeEvent(Type.DELETED, job.getId(), job.getJobName(), null, null,
+                job.getStatus(), job.getJobType(), LocalDateTime.now(), null, job.getCreatedAt());
+    }
+
+    // Moved to app_job_archive - gone from the job endpoints like a deleted job
+    static JobChangeEvent archived(Job job) {
+        return new JobChangeEvent(Type.ARCHIVED, job.getId(), job.getJobName(), null, null,
+                job.getStatus(), job.getJobType(), LocalDateTime.now(), job.getVersion(), job.getCreatedAt());
+    }
+}
@@ -0,0 +1,218 @@
+package hit.final_project;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+@Component
+// In-memory change feed behind GET /api/jobs/changes.
+// Every JobChangeEvent gets the next sequence number and is kept in a fixed-size ring buffer, so clients
+// resume from the last sequence they saw and receive only the changes after it. Long-poll requests wait
+// for the next change instead of re-reading the jobs, and SSE subscribers are pushed each change.
+// Sequence numbers restart with the application, so a cursor is a sequence number plus the epoch of the process
+// that issued it; a cursor from another epoch, or one the buffer can no longer serve, asks the client to resync.
+public class JobChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(JobChangeFeed.class);
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8); // New on every start
+    private final JobChange[] buffer;
+    private final long maxPollTimeoutMs;
+    private final long sseTimeoutMs;
+    private final List<Waiter> waiters = new ArrayList<>(); // Guarded by this
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    // Sends to SSE subscribers in sequence order, off the thread that made the change
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("job-change-feed").daemon(true).factory());
+    private long lastSequence; // Guarded by this
+
+    private record Waiter(long after, int limit, Consumer<JobChangePage> callback) {
+    }
+
+    public JobChangeFeed(@Value("${jobs.changes.buffer-size:1024}") int bufferSize,
+                         @Value("${jobs.changes.max-poll-timeout:30s}") Duration maxPollTimeout,
+                         @Value("${jobs.changes.sse-timeout:30m}") Duration sseTimeout) {
+        this.buffer = new JobChange[bufferSize];
+        this.maxPollTimeoutMs = maxPollTimeout.toMillis();
+        this.sseTimeoutMs = sseTimeout.toMillis();
+    }
+
+    // Runs after the surrounding transaction commits (or immediately when there is none),
+    // so rolled-back changes never reach the feed. Password changes are not served
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChange(JobChangeEvent event) {
+        if (event.type() == JobChangeEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        List<Waiter> ready;
+        synchronized (this) {
+            JobChange change = new JobChange(++lastSequence, event);
+            buffer[index(change.sequence())] = change;
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+            // Queued under the lock so SSE sends happen in sequence order (see subscribe)
+            dispatcher.execute(() -> emitters.forEach(emitter -> send(emitter, change)));
+        }
+        for (Waiter waiter : ready) {
+            waiter.callback().accept(changesAfter(waiter.after(), waiter.limit()));
+        }
+    }
+
+    // The sequence number of the latest change, 0 before the first one
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    // The sequence number to continue after: the latest change when there is no cursor, the given one when this
+    // process issued it, and past the end (answered with a resync) when it carries another epoch or none
+    public long cursor(String epoch, Long after) {
+        if (after == null) {
+            return lastSequence();
+        }
+        return this.epoch.equals(epoch) ? after : Long.MAX_VALUE;
+    }
+
+    // The cursor of an SSE event id ("epoch:sequence"), e.g. from the Last-Event-ID header
+    public long cursor(String eventId) {
+        int separator = eventId.indexOf(':');
+        try {
+            return separator < 0 ? Long.MAX_VALUE
+                    : cursor(eventId.substring(0, separator), Long.parseLong(eventId.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // The SSE event id of a change (or resync marker) at the given sequence number
+    static String eventId(String epoch, long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    // Up to limit changes after the given sequence number (of this epoch, see cursor)
+    public synchronized JobChangePage changesAfter(long after, int limit) {
+        if (after > lastSequence) {
+            return new JobChangePage(epoch, lastSequence, true, List.of()); // A cursor from another epoch
+        }
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        boolean resyncRequired = after < oldest - 1;
+        List<JobChange> changes = new ArrayList<>();
+        long sequence = Math.max(after + 1, oldest);
+        for (; sequence <= lastSequence && changes.size() < limit; sequence++) {
+            changes.add(buffer[index(sequence)]);
+        }
+        return new JobChangePage(epoch, changes.isEmpty() ? after : sequence - 1, resyncRequired, changes);
+    }
+
+    // Long-poll: completes as soon as there are changes after the cursor, or empty after the timeout.
+    // A null cursor waits for the next change
+    public DeferredResult<JobChangePage> poll(String epoch, Long after, int limit, long timeoutMs) {
+        long timeout = pollTimeout(timeoutMs);
+        long cursor = cursor(epoch, after);
+        DeferredResult<JobChangePage> result = new DeferredResult<>(timeout);
+        if (timeout == 0) {
+            result.setResult(changesAfter(cursor, limit));
+            return result;
+        }
+        Runnable cancel = onChangesAfter(cursor, limit, result::setResult);
+        result.onTimeout(() -> result.setResult(new JobChangePage(epoch, cursor, false, List.of())));
+        result.onCompletion(cancel);
+        return result;
+    }
+
+    // The requested long-poll timeout, clamped to [0, jobs.changes.max-poll-timeout]
+    public long pollTimeout(long timeoutMs) {
+        return Math.min(Math.max(timeoutMs, 0), maxPollTimeoutMs);
+    }
+
+    // Calls back once with the changes after the cursor: at once when there are any (or the cursor needs a resync),
+    // otherwise on the next change. Returns the action that stops waiting, for a caller that gives up first.
+    // The building block of both long-poll flavours (poll here, ReactiveJobController for the reactive stack)
+    public Runnable onChangesAfter(long after, int limit, Consumer<JobChangePage> callback) {
+        JobChangePage page;
+        synchronized (this) {
+            page = changesAfter(after, limit);
+            if (page.changes().isEmpty() && !page.resyncRequired()) {
+                Waiter waiter = new Waiter(after, limit, callback);
+                waiters.add(waiter);
+                return () -> removeWaiter(waiter);
+            }
+        }
+        callback.accept(page);
+        return () -> {
+        };
+    }
+
+    // SSE: replays the buffered changes after the cursor (see cursor), then pushes every new change.
+    // Each event's id is its epoch and sequence number, so a reconnecting EventSource resumes via Last-Event-ID.
+    // A null cursor starts with the next change
+    public SseEmitter subscribe(Long after) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        // Runs on the dispatcher: changes recorded before the snapshot are replayed, later ones are
+        // queued behind this task, so nothing is lost or sent twice
+        dispatcher.execute(() -> {
+            JobChangePage replay;
+            synchronized (this) {
+                replay = changesAfter(after != null ? after : lastSequence, buffer.length);
+                emitters.add(emitter);
+            }
+            try {
+                if (replay.resyncRequired()) {
+                    // The id resumes at the first replayed change should the connection drop right after this event
+                    long resumeAfter = replay.changes().isEmpty() ? replay.nextAfter() : replay.changes().get(0).sequence() - 1;
+                    emitter.send(SseEmitter.event().name("resync").id(eventId(epoch, resumeAfter)).data("resync"));
+                }
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return;
+            }
+            replay.changes().forEach(change -> send(emitter, change));
+        });
+        logger.debug("SSE subscriber connected after sequence {}", after);
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, JobChange change) {
+        try {
+            emitter.send(SseEmitter.event().id(eventId(epoch, change.sequence())).data(change));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping SSE subscriber: {}", e.getMessage());
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private synchronized void removeWaiter(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
@@ -0,0 +1,10 @@
+package hit.final_project;
+
+import java.util.List;
+
+// Response of GET /api/jobs/changes.
+// epoch and nextAfter are the cursor for the next call; resyncRequired means changes after the requested cursor
+// are no longer in the replay buffer (or the cursor comes from another epoch, e.g. before a restart), so the
+// client should reload the jobs
+public record JobChangePage(String epoch, long nextAfter, boolean resyncRequired, List<JobChange> changes) {
+}
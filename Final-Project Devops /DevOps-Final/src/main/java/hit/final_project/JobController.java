@@ -4,40 +4,100 @@ package hit.final_project;
 // this controller handle Http req and res for job interaction and operations
 //  מאפשר ליוזרים לתקשר מול הסרוויס שמקשר מול הדאטה בייס
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 // // הזרקת המדוטות למטה לתוך הגוף של הרספונס
 @RestController // Marks this class as a REST controller
 @RequestMapping("/api/jobs") // Sets the base URL path for this controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // ReactiveJobController serves the "reactive" profile
 
 public class JobController {
     private static final Logger logger = LoggerFactory.getLogger(JobController.class); // Logger instance
+    static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id"; // Cursor for the next page
+    private static final String STREAM_TIMEOUT_INTERCEPTOR = JobController.class.getName() + ".streamTimeout";
+    static final long MAX_HISTOGRAM_BUCKETS = 10_000; // A week of minutes, over a year of hours
     private final JobService jobService;
+    private final JobChangeFeed changeFeed;
+    private final JobStats jobStats;
+    private final JobArchiveService jobArchiveService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RateLimitFilter> rateLimits; // Absent when jobs.rate-limit.enabled=false
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final Duration streamTimeout;
 
     // Constructor-based Dependency Injection (DI)
-    public JobController(JobService jobService) {
+    public JobController(JobService jobService,
+                         JobChangeFeed changeFeed,
+                         JobStats jobStats,
+                         JobArchiveService jobArchiveService,
+                         ObjectMapper objectMapper,
+                         ObjectProvider<RateLimitFilter> rateLimits,
+                         @Value("${jobs.page.default-size:100}") int defaultPageSize,
+                         @Value("${jobs.page.max-size:1000}") int maxPageSize,
+                         @Value("${jobs.batch.max-size:10000}") int maxBatchSize,
+                         @Value("${jobs.stream.timeout:10m}") Duration streamTimeout) {
         this.jobService = jobService;
+        this.changeFeed = changeFeed;
+        this.jobStats = jobStats;
+        this.jobArchiveService = jobArchiveService;
+        this.objectMapper = objectMapper;
+        this.rateLimits = rateLimits;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.streamTimeout = streamTimeout;
     }
 
-    // 1 - Retrieve all jobs
+    // 1 - Retrieve jobs one page at a time, ordered by ID (keyset pagination)
+    // The X-Next-After-Id header holds the afterId for the next page and is absent on the last page
     @GetMapping
-    public List<Job> getAllJobs() {
-        logger.info("Received request to retrieve all jobs.");
-        return jobService.getAllJobs();
+    public ResponseEntity<List<JobDTO>> getAllJobs(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to retrieve jobs after ID: {}", afterId);
+        int pageSize = pageSize(limit);
+        return page(jobService.getJobsPage(afterId, pageSize), pageSize);
     }
 
     // 2 - Create a new job
     @PostMapping
     public ResponseEntity<Job> createJob(@RequestBody Job job) {
-        logger.info("Received request to create a new job.");
+        logger.debug("Received request to create a new job.");
         Job createdJob = jobService.createJob(
                 job.getJobName(),
                 job.getStatus(),
@@ -46,16 +106,16 @@ public class JobController {
                 job.getJobType(),
                 job.getPassword()
         );
-        logger.info("Job created successfully with ID: {}", createdJob.getId());
+        logger.debug("Job created successfully with ID: {}", createdJob.getId());
         return new ResponseEntity<>(createdJob, HttpStatus.CREATED);
     }
 
     // 3 - Retrieve a job by ID
     @GetMapping("/{id}")
     public ResponseEntity<Job> getJobById(@PathVariable Long id) {
-        logger.info("Received request to retrieve job with ID: {}", id);
+        logger.debug("Received request to retrieve job with ID: {}", id);
         Optional<Job> job = jobService.getJobById(id);
-        return job.map(ResponseEntity::ok)
+        return job.map(found -> ResponseEntity.ok().eTag(etag(found.getVersion())).body(found))
                 .orElseGet(() -> {
                     logger.error("Job not found with ID: {}", id);
                     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -63,34 +123,57 @@ public class JobController {
     }
 
     // 4 - Update a job by ID
+    // With If-Match (the ETag from GET) the update only applies if nobody changed the job since; otherwise 412
     @PutMapping("/{id}")
     public ResponseEntity<Job> updateJob(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Job job
     ) {
-        logger.info("Received request to update job with ID: {}", id);
+        logger.debug("Received request to update job with ID: {}", id);
         Optional<Job> updatedJob = jobService.updateJob(
                 id,
+                expectedVersion(id, ifMatch),
                 job.getJobName(),
                 job.getStatus(),
                 LocalDateTime.now(), // Set updatedAt to current time
                 job.getJobType(),
                 job.getPassword()
         );
-        return updatedJob.map(ResponseEntity::ok)
+        return updatedJob.map(updated -> ResponseEntity.ok().eTag(etag(updated.getVersion())).body(updated))
                 .orElseGet(() -> {
                     logger.error("Job not found for update with ID: {}", id);
                     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
                 });
     }
 
+    // 4 - Partially update a job by ID with a single UPDATE statement (the job is not loaded first)
+    // Omitted fields keep their value; with If-Match the update is conditional and the new ETag is returned
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchJob(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JobPatch patch
+    ) {
+        logger.debug("Received request to patch job with ID: {}", id);
+        Long expectedVersion = expectedVersion(id, ifMatch);
+        if (!jobService.patchJob(id, expectedVersion, patch, LocalDateTime.now())) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (expectedVersion != null) {
+            response.eTag(etag(expectedVersion + 1));
+        }
+        return response.build();
+    }
+
     // 5 - Delete a job by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteJob(@PathVariable Long id) {
-        logger.info("Received request to delete job with ID: {}", id);
+        logger.debug("Received request to delete job with ID: {}", id);
         try {
             jobService.deleteJob(id);
-            logger.info("Job deleted successfully with ID: {}", id);
+            logger.debug("Job deleted successfully with ID: {}", id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (RuntimeException e) {
             logger.error("Error deleting job with ID: {}", id);
@@ -100,25 +183,321 @@ public class JobController {
 
     // 6 - Retrieve jobs by status
     @GetMapping("/status/{status}")
-    public List<Job> getJobsByStatus(@PathVariable String status) {
-        logger.info("Received request to retrieve jobs by status: {}", status);
+    // The status is a label such as "In Progress"; an unknown one is rejected with 400 (see WebConfig)
+    public List<JobDTO> getJobsByStatus(@PathVariable JobStatus status) {
+        logger.debug("Received request to retrieve jobs by status: {}", status);
         return jobService.findJobsByStatus(status);
     }
 
     // 7 - Retrieve jobs by job type
     @GetMapping("/jobType/{jobType}")
-    public List<Job> getJobsByJobType(@PathVariable String jobType) {
-        logger.info("Received request to retrieve jobs by job type: {}", jobType);
+    public List<JobDTO> getJobsByJobType(@PathVariable JobType jobType) {
+        logger.debug("Received request to retrieve jobs by job type: {}", jobType);
         return jobService.findJobsByJobType(jobType);
     }
 
     // 8 - Retrieve jobs by a date range
     @GetMapping("/date-range")
-    public List<Job> getJobsByDateRange(
+    public List<JobDTO> getJobsByDateRange(
             @RequestParam("startDate") LocalDateTime startDate,
             @RequestParam("endDate") LocalDateTime endDate
     ) {
-        logger.info("Received request to retrieve jobs by date range: {} - {}", startDate, endDate);
+        logger.debug("Received request to retrieve jobs by date range: {} - {}", startDate, endDate);
         return jobService.findJobsByDateRange(startDate, endDate);
     }
+
+    // 9 - Stream all jobs as newline-delimited JSON, one job per line
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    // The stream can run far longer than other async requests, so it gets its own timeout (jobs.stream.timeout),
+    // applied to this request only, just before it goes async
+    public ResponseEntity<StreamingResponseBody> streamAllJobs(NativeWebRequest request) {
+        logger.debug("Received request to stream all jobs.");
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(STREAM_TIMEOUT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(streamTimeout.toMillis());
+                    }
+                });
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream out = new BufferedOutputStream(outputStream);
+            jobService.streamAllJobs(job -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(job));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // 10 - Create many jobs from a JSON array
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> createJobs(
+            @RequestBody List<Job> jobs,
+            @RequestAttribute(value = RateLimitFilter.CLIENT_KEY_ATTRIBUTE, required = false) String clientKey
+    ) {
+        logger.debug("Received request to create {} jobs.", jobs.size());
+        return createJobBatch(jobs, clientKey);
+    }
+
+    // 11 - Create many jobs from newline-delimited JSON, one job per line
+    // A line that is not a valid job is reported as a failed item instead of failing the whole request
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> createJobsFromNdjson(
+            InputStream body,
+            @RequestAttribute(value = RateLimitFilter.CLIENT_KEY_ATTRIBUTE, required = false) String clientKey
+    ) throws IOException {
+        logger.debug("Received request to create jobs from NDJSON.");
+        List<Job> jobs = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (jobs.size() == maxBatchSize) {
+                return batchTooLarge();
+            }
+            try {
+                jobs.add(objectMapper.readValue(line, Job.class));
+            } catch (IOException e) {
+                logger.error("Skipping malformed NDJSON line {}", jobs.size());
+                jobs.add(null);
+            }
+        }
+        return createJobBatch(jobs, clientKey);
+    }
+
+    private ResponseEntity<List<BatchItemResult>> createJobBatch(List<Job> jobs, String clientKey) {
+        if (jobs.size() > maxBatchSize) {
+            return batchTooLarge();
+        }
+        RateLimitFilter limiter = rateLimits.getIfAvailable();
+        long waitNanos = limiter != null && clientKey != null ? limiter.chargeBatch(clientKey, jobs) : 0;
+        if (waitNanos > 0) {
+            logger.debug("Batch create rejected: hashing rate limit exceeded for client {}", clientKey);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimitFilter.retryAfterSeconds(waitNanos)))
+                    .build();
+        }
+        return ResponseEntity.ok(jobService.createJobs(jobs));
+    }
+
+    private ResponseEntity<List<BatchItemResult>> batchTooLarge() {
+        logger.error("Batch create rejected: more than {} jobs", maxBatchSize);
+        return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    // 12 - Search jobs by any combination of status, job type and creation time range
+    // Paged like GET /api/jobs (afterId + limit, X-Next-After-Id header)
+    @GetMapping("/search")
+    public ResponseEntity<List<JobDTO>> searchJobs(
+            @RequestParam(value = "status", required = false) JobStatus status,
+            @RequestParam(value = "jobType", required = false) JobType jobType,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to search jobs with status: {}, job type: {}, created between {} and {}", status, jobType, from, to);
+        int pageSize = pageSize(limit);
+        return page(jobService.searchJobs(status, jobType, from, to, afterId, pageSize), pageSize);
+    }
+
+    // 13 - Long-poll the change feed: returns the job changes after the given sequence number as soon as there
+    // are any, or an empty page after timeoutMs. Omit "after" to wait for the next change; pass the returned
+    // epoch and nextAfter on the following call
+    @GetMapping("/changes")
+    public DeferredResult<JobChangePage> getJobChanges(
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMs,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to poll job changes after sequence {}", after);
+        return changeFeed.poll(epoch, after, pageSize(limit), timeoutMs);
+    }
+
+    // 14 - Subscribe to the change feed as server-sent events, replaying the changes after "after"
+    // (or the Last-Event-ID header a reconnecting EventSource sends) before pushing new ones
+    @GetMapping(value = "/changes/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToJobChanges(
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        logger.debug("Received request to subscribe to job changes");
+        if (lastEventId != null) {
+            return changeFeed.subscribe(changeFeed.cursor(lastEventId));
+        }
+        return changeFeed.subscribe(after != null ? changeFeed.cursor(epoch, after) : null);
+    }
+
+    // 15 - Job counts overall, per status and per job type, served from in-memory counters
+    @GetMapping("/stats")
+    public JobStatsDTO getJobStats() {
+        logger.debug("Received request to retrieve job statistics");
+        return jobStats.snapshot();
+    }
+
+    // 16 - Retrieve archived jobs one page at a time, ordered by ID (paged like GET /api/jobs)
+    @GetMapping("/archive")
+    public ResponseEntity<List<JobDTO>> getArchivedJobs(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to retrieve archived jobs after ID: {}", afterId);
+        int pageSize = pageSize(limit);
+        return page(jobArchiveService.getArchivedJobsPage(afterId, pageSize), pageSize);
+    }
+
+    // 17 - Retrieve an archived job by ID
+    @GetMapping("/archive/{id}")
+    public ResponseEntity<JobDTO> getArchivedJobById(@PathVariable Long id) {
+        logger.debug("Received request to retrieve archived job with ID: {}", id);
+        return jobArchiveService.getArchivedJobById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    logger.error("Archived job not found with ID: {}", id);
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                });
+    }
+
+    // 18 - Check a job's password: 204 when it matches, 403 when it does not (or the job has none), 404 for no job
+    @PostMapping("/{id}/verify")
+    public ResponseEntity<Void> verifyPassword(@PathVariable Long id, @RequestBody PasswordVerificationRequest request) {
+        logger.debug("Received request to verify the password of job with ID: {}", id);
+        if (request.password() == null || request.password().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return passwordResponse(jobService.verifyPassword(id, request.password()));
+    }
+
+    // 19 - Change a job's password given the current one (204, 403 when the old password does not match, 404)
+    @PostMapping("/{id}/password")
+    public ResponseEntity<Void> changePassword(@PathVariable Long id, @RequestBody UpdatePasswordRequest request) {
+        logger.debug("Received request to change the password of job with ID: {}", id);
+        if (!isValid(request)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return passwordResponse(jobService.changePassword(id, request.getOldPassword(), request.getNewPassword(),
+                LocalDateTime.now()));
+    }
+
+    static boolean isValid(UpdatePasswordRequest request) {
+        return request.getOldPassword() != null && !request.getOldPassword().isEmpty()
+                && request.getNewPassword() != null && !request.getNewPassword().isBlank();
+    }
+
+    static ResponseEntity<Void> passwordResponse(JobService.PasswordCheck check) {
+        return switch (check) {
+            case MATCHED -> new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            case MISMATCHED -> new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            case NOT_FOUND -> new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        };
+    }
+
+    // 20 - Delete every job matching the filters in bulk (see JobService.deleteJobs); olderThan compares updatedAt.
+    // At least one filter is required, so a bare DELETE /api/jobs cannot empty the table
+    @DeleteMapping
+    public ResponseEntity<BulkResult> deleteJobs(
+            @RequestParam(value = "status", required = false) JobStatus status,
+            @RequestParam(value = "jobType", required = false) JobType jobType,
+            @RequestParam(value = "olderThan", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime olderThan
+    ) {
+        logger.debug("Received request to delete jobs with status: {}, job type: {}, last updated before {}", status, jobType, olderThan);
+        if (status == null && jobType == null && olderThan == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(new BulkResult(jobService.deleteJobs(status, jobType, olderThan)));
+    }
+
+    // 21 - Move every job matching the filters to another status in bulk (see JobService.updateJobStatuses)
+    @PatchMapping("/status")
+    public ResponseEntity<BulkResult> updateJobStatuses(@RequestBody BulkStatusUpdate update) {
+        logger.debug("Received request to move jobs with status: {}, job type: {}, last updated before {} to {}",
+                update.from(), update.jobType(), update.olderThan(), update.to());
+        if (!isValid(update)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(new BulkResult(jobService.updateJobStatuses(update.from(), update.jobType(),
+                update.olderThan(), update.to(), LocalDateTime.now())));
+    }
+
+    static boolean isValid(BulkStatusUpdate update) {
+        return update.to() != null && (update.from() != null || update.jobType() != null || update.olderThan() != null);
+    }
+
+    // 22 - Find jobs by name (see JobService.searchJobsByName): up to limit {id, jobName} pairs, newest first
+    @GetMapping("/search/name")
+    public ResponseEntity<List<JobNameMatch>> searchJobsByName(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to search jobs by name: {}", query);
+        if (query == null || query.isBlank()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(jobService.searchJobsByName(query, pageSize(limit)));
+    }
+
+    // 23 - Jobs created per minute, hour or day in [from, to), by status or job type (see JobService.getHistogram).
+    // The range may span at most MAX_HISTOGRAM_BUCKETS buckets
+    @GetMapping("/histogram")
+    public ResponseEntity<JobHistogram> getHistogram(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam("bucket") JobHistogram.Bucket bucket,
+            @RequestParam(value = "groupBy", defaultValue = "status") JobHistogram.GroupBy groupBy
+    ) {
+        logger.debug("Received request for a histogram of jobs created between {} and {} per {} by {}", from, to, bucket, groupBy);
+        if (!isValidHistogramRange(from, to, bucket)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(jobService.getHistogram(from, to, bucket, groupBy, LocalDateTime.now()));
+    }
+
+    static boolean isValidHistogramRange(LocalDateTime from, LocalDateTime to, JobHistogram.Bucket bucket) {
+        return from.isBefore(to) && bucket.count(from, to) <= MAX_HISTOGRAM_BUCKETS;
+    }
+
+    // The job version as a strong ETag, e.g. "3"
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // The version named by an If-Match header, or null when the header is absent or "*".
+    // A value that is not one of our ETags can never match, so it fails the precondition
+    static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new JobVersionConflictException(id);
+        }
+    }
+
+    // Requested page size, clamped to [1, maxPageSize]
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    // A full page means there may be more - point the client at the next one
+    static ResponseEntity<List<JobDTO>> page(List<JobDTO> jobs, int pageSize) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (jobs.size() == pageSize) {
+            response.header(NEXT_AFTER_ID_HEADER, String.valueOf(jobs.get(jobs.size() - 1).getId()));
+        }
+        return response.body(jobs);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// Number of jobs with a given status and job type (one row of the statistics GROUP BY)
+public record JobCount(JobStatus status, JobType jobType, long count) {
+}
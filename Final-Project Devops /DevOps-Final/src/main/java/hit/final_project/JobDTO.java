@@ -1,5 +1,6 @@
 package hit.final_project;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -9,15 +10,16 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor // Used by the JPQL constructor expressions in JobRepository
 // (DTO) Data transfer Object
+// Returned by the list endpoints - a Job without its password hash, which is never selected from the database
 public class JobDTO {
 
     private Long id;
     private String jobName;
-    private String status;
+    private JobStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private String jobType;
-    private String password;
+    private JobType jobType;
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package hit.final_project;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+// Runs Pending jobs. A scheduled poll claims batches of Pending jobs (locked with SKIP LOCKED, so several
+// instances share the work) and moves them to In Progress, then a fixed pool runs each one with the
+// JobHandler registered for its jobType and moves it to Completed or Failed. Claimed jobs wait in a
+// priority queue (handler priority, then claim order), and the poll never claims more than the pool can
+// take, so jobs another instance could run are not held here. Every transition goes through JobService.
+// A claim is a lease: the executor renews it for the jobs it holds, and jobs whose lease ran out (their instance
+// crashed or was killed) are returned to Pending by whichever instance checks next. The claim time is the fencing
+// token: renewing and finishing only apply while the job is still under the claim this executor made, so a job
+// released after a stall and claimed again elsewhere is left to its new holder.
+// Off unless jobs.executor.enabled=true, so only instances meant to run jobs poll for them.
+// Throughput and run times are the jobs.executor.execution timers, claim latency the jobs.executor.claim
+// timer, and the queue depth the executor.queued gauge (name=job-executor, see MetricsConfig)
+public class JobExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(JobExecutor.class);
+    private final JobService jobService;
+    private final Map<JobType, JobHandler> handlers = new EnumMap<>(JobType.class);
+    private final ThreadPoolExecutor executor;
+    private final int capacity; // Claimed jobs held at once: running plus queued
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final Map<Long, Job> held = new ConcurrentHashMap<>(); // The claimed jobs by ID, queued or running
+    // Renewing changes the claim a held job carries; finishing takes the read side so it never sends a claim
+    // the database has already replaced
+    private final ReadWriteLock leaseLock = new ReentrantReadWriteLock();
+    private final MeterRegistry meterRegistry;
+    private final Timer claimTimer;
+    private final boolean enabled; // Read at runtime (see StartupConfig)
+    private final int claimBatchSize;
+    private final Duration leaseTimeout; // How long a claim lasts without being renewed
+    private final Duration shutdownTimeout;
+
+    public JobExecutor(JobService jobService, List<JobHandler> handlers, MeterRegistry meterRegistry,
+                       @Value("${jobs.executor.enabled:false}") boolean enabled,
+                       @Value("${jobs.executor.concurrency:4}") int concurrency,
+                       @Value("${jobs.executor.queue-capacity:100}") int queueCapacity,
+                       @Value("${jobs.executor.claim-batch-size:50}") int claimBatchSize,
+                       @Value("${jobs.executor.lease-timeout:5m}") Duration leaseTimeout,
+                       @Value("${jobs.executor.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jobService = jobService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.claimBatchSize = claimBatchSize;
+        this.leaseTimeout = leaseTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        for (JobHandler handler : handlers) {
+            JobHandler previous = this.handlers.put(handler.jobType(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("Two handlers for job type " + handler.jobType());
+            }
+        }
+        this.capacity = concurrency + queueCapacity;
+        // Jobs are independent and do not fork subtasks, so a work-stealing pool has nothing to steal;
+        // one shared priority queue keeps the start order instead
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(capacity),
+                Thread.ofPlatform().name("job-executor-", 0).daemon(true).factory());
+        this.claimTimer = Timer.builder("jobs.executor.claim")
+                .description("Time to claim a batch of pending jobs")
+                .register(meterRegistry);
+        if (enabled) {
+            logger.info("Job executor started with {} threads for job types {}", concurrency, this.handlers.keySet());
+        }
+    }
+
+    // The pool, for the executor metrics (queue depth, active threads, completed jobs)
+    ThreadPoolExecutor executor() {
+        return executor;
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.executor.poll-interval-ms:1000}")
+    public void poll() {
+        if (enabled && !executor.isShutdown()) {
+            claimAndDispatch();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.executor.lease-check-interval-ms:60000}")
+    public void checkLeases() {
+        if (enabled && !executor.isShutdown()) {
+            renewAndReleaseLeases(LocalDateTime.now());
+        }
+    }
+
+    // Renew the lease of every job held here, then return jobs whose lease ran out to Pending; returns the number returned
+    public int renewAndReleaseLeases(LocalDateTime now) {
+        int released = 0;
+        try {
+            if (!held.isEmpty()) {
+                renewLeases(now);
+            }
+            while (true) {
+                int count = jobService.releaseExpiredClaims(now.minus(leaseTimeout), claimBatchSize, now).size();
+                released += count;
+                if (count < claimBatchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to check job leases", e);
+        }
+        return released;
+    }
+
+    private void renewLeases(LocalDateTime now) {
+        leaseLock.writeLock().lock();
+        try {
+            List<Job> jobs = List.copyOf(held.values());
+            int lost = jobs.size() - jobService.renewClaims(jobs, now).size();
+            if (lost > 0) {
+                // Released after a stall (and maybe claimed again elsewhere): their outcome here will not be recorded
+                logger.warn("Lost the lease on {} held jobs", lost);
+            }
+        } finally {
+            leaseLock.writeLock().unlock();
+        }
+    }
+
+    // Claim as many Pending jobs as there is room for and hand them to the pool; returns the number claimed
+    public int claimAndDispatch() {
+        int total = 0;
+        while (true) {
+            int room = Math.min(capacity - inFlight.get(), claimBatchSize);
+            if (room <= 0) {
+                break; // Full - the next poll claims more
+            }
+            List<Job> claimed;
+            try {
+                claimed = claimTimer.record(() -> jobService.claimPendingJobs(room, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                logger.error("Failed to claim pending jobs", e);
+                break;
+            }
+            claimed.forEach(this::dispatch);
+            total += claimed.size();
+            if (claimed.size() < room) {
+                break; // Nothing more is pending
+            }
+        }
+        return total;
+    }
+
+    private void dispatch(Job job) {
+        JobHandler handler = handlers.get(job.getJobType());
+        if (handler == null) {
+            logger.warn("No handler for job {} of type {}", job.getId(), job.getJobType());
+            finish(job, JobStatus.FAILED);
+            return;
+        }
+        inFlight.incrementAndGet();
+        held.put(job.getId(), job);
+        executor.execute(new Task(job, handler, claimSequence.incrementAndGet()));
+    }
+
+    // A claimed job waiting for a pool thread: runs it and records its outcome.
+    // Ordered by handler priority (highest first), then by claim order
+    private final class Task implements Runnable, Comparable<Task> {
+        private final Job job;
+        private final JobHandler handler;
+        private final long sequence;
+
+        Task(Job job, JobHandler handler, long sequence) {
+            this.job = job;
+            this.handler = handler;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = Integer.compare(other.handler.priority(), handler.priority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            String outcome;
+            try {
+                handler.execute(job);
+                outcome = finish(job, JobStatus.COMPLETED) ? "completed" : "lost";
+            } catch (InterruptedException e) {
+                logger.info("Job {} interrupted by shutdown, returning it to {}", job.getId(), JobStatus.PENDING);
+                outcome = finish(job, JobStatus.PENDING) ? "requeued" : "lost";
+                Thread.currentThread().interrupt(); // Restored after the update so the JDBC call is not interrupted
+            } catch (Exception e) {
+                logger.error("Job {} failed", job.getId(), e);
+                outcome = finish(job, JobStatus.FAILED) ? "failed" : "lost";
+            } finally {
+                held.remove(job.getId());
+                inFlight.decrementAndGet();
+            }
+            Timer.builder("jobs.executor.execution")
+                    .description("Time to run a job, by job type and outcome")
+                    .tags("jobType", job.getJobType().label(), "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Move a job this executor claimed out of In Progress; false when someone else changed, deleted or re-claimed it meanwhile
+    private boolean finish(Job job, JobStatus status) {
+        leaseLock.readLock().lock();
+        try {
+            return jobService.transitionJob(job, JobStatus.IN_PROGRESS, status, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.error("Failed to move job {} to {}", job.getId(), status, e);
+            return false;
+        } finally {
+            leaseLock.readLock().unlock();
+        }
+    }
+
+    // Return the jobs that have not started to Pending for the next poll (here or on another instance),
+    // let the running ones finish, and interrupt whatever is still running after the timeout
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        List<Runnable> queued = new ArrayList<>();
+        executor.getQueue().drainTo(queued);
+        for (Runnable task : queued) {
+            Job job = ((Task) task).job;
+            finish(job, JobStatus.PENDING);
+            held.remove(job.getId());
+            inFlight.decrementAndGet();
+        }
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!queued.isEmpty()) {
+            logger.info("Returned {} queued jobs to {}", queued.size(), JobStatus.PENDING);
+        }
+    }
+}
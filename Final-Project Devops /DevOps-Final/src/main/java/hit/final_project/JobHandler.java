@@ -0,0 +1,17 @@
+package hit.final_project;
+
+// Runs the jobs of one job type for JobExecutor. Every JobHandler bean is registered under its jobType();
+// a job whose type has no handler fails. When claimed jobs queue up, higher-priority handlers run first
+public interface JobHandler {
+
+    // The jobType this handler runs
+    JobType jobType();
+
+    // Jobs with a higher priority are started before queued jobs with a lower one
+    default int priority() {
+        return 0;
+    }
+
+    // Run the job on an executor thread: return normally to complete it, throw to fail it
+    void execute(Job job) throws Exception;
+}
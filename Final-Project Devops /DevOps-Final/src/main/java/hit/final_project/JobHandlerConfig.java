@@ -0,0 +1,28 @@
+package hit.final_project;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+// The handlers JobExecutor dispatches to, one per job type. These simulate the work; replace a bean
+// with a real JobHandler to run actual steps. Deployments go first, then tests, then builds
+public class JobHandlerConfig {
+
+    @Bean
+    JobHandler deployJobHandler(@Value("${jobs.handlers.simulated-duration:1s}") Duration duration) {
+        return new SimulatedJobHandler(JobType.DEPLOY, 2, duration);
+    }
+
+    @Bean
+    JobHandler testJobHandler(@Value("${jobs.handlers.simulated-duration:1s}") Duration duration) {
+        return new SimulatedJobHandler(JobType.TEST, 1, duration);
+    }
+
+    @Bean
+    JobHandler buildJobHandler(@Value("${jobs.handlers.simulated-duration:1s}") Duration duration) {
+        return new SimulatedJobHandler(JobType.BUILD, 0, duration);
+    }
+}
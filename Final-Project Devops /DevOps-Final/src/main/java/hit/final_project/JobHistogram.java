@@ -0,0 +1,113 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Response of GET /api/jobs/histogram - job counts per creation-time bucket, split by status or job type.
+// Buckets start on whole minutes, hours or days; buckets without jobs are left out
+public record JobHistogram(Bucket bucket, GroupBy groupBy, List<Row> buckets) {
+
+    // Jobs created in [start, start + 1 bucket), by status or job type label
+    public record Row(LocalDateTime start, Map<String, Long> counts) {
+    }
+
+    public enum Bucket {
+        MINUTE("minute", ChronoUnit.MINUTES, ChronoUnit.HOURS),
+        HOUR("hour", ChronoUnit.HOURS, ChronoUnit.DAYS),
+        DAY("day", ChronoUnit.DAYS, ChronoUnit.MONTHS);
+
+        private final String label;
+        private final ChronoUnit unit;
+        private final ChronoUnit block; // Closed buckets are cached a block at a time (JobHistogramCache)
+
+        Bucket(String label, ChronoUnit unit, ChronoUnit block) {
+            this.label = label;
+            this.unit = unit;
+            this.block = block;
+        }
+
+        @JsonValue
+        public String label() {
+            return label;
+        }
+
+        // The start of the bucket holding the given time
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        // The first bucket start at or after the given time
+        public LocalDateTime ceil(LocalDateTime time) {
+            LocalDateTime start = truncate(time);
+            return start.equals(time) ? time : start.plus(1, unit);
+        }
+
+        // The start of the block (hour, day or month) holding the given time
+        public LocalDateTime blockStart(LocalDateTime time) {
+            return block == ChronoUnit.MONTHS ? time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1) : time.truncatedTo(block);
+        }
+
+        // The start of the block after the one starting at blockStart
+        public LocalDateTime nextBlock(LocalDateTime blockStart) {
+            return blockStart.plus(1, block);
+        }
+
+        // Number of buckets [from, to) spans
+        public long count(LocalDateTime from, LocalDateTime to) {
+            return unit.between(truncate(from), to.minusNanos(1)) + 1;
+        }
+
+        // The bucket with the given label, ignoring case
+        public static Bucket fromLabel(String label) {
+            for (Bucket bucket : values()) {
+                if (bucket.label.equalsIgnoreCase(label)) {
+                    return bucket;
+                }
+            }
+            throw new IllegalArgumentException("Unknown bucket '" + label + "', expected one of "
+                    + Arrays.stream(values()).map(Bucket::label).toList());
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public enum GroupBy {
+        STATUS("status"),
+        JOB_TYPE("jobType");
+
+        private final String label; // Also the Job attribute grouped on
+
+        GroupBy(String label) {
+            this.label = label;
+        }
+
+        @JsonValue
+        public String label() {
+            return label;
+        }
+
+        // The grouping with the given label, ignoring case
+        public static GroupBy fromLabel(String label) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.label.equalsIgnoreCase(label)) {
+                    return groupBy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown groupBy '" + label + "', expected one of "
+                    + Arrays.stream(values()).map(GroupBy::label).toList());
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+}
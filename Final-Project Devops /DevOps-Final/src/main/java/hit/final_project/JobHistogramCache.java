@@ -0,0 +1,105 @@
+package hit.final_project;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+@Component
+// Histogram rows of closed blocks (an hour of minute buckets, a day of hour buckets or a month of day buckets that
+// ended at or before the start of the current bucket), so dashboards polling the same range query the database
+// once and overlapping ranges share blocks. A closed block still changes when a job created in it is added
+// (a past createdAt), moved to another status or job type, deleted or archived; the JobChangeEvent names the
+// job's createdAt, so only that block is dropped. A PATCH does not know it and clears the affected grouping
+public class JobHistogramCache {
+    private final Cache<Key, List<JobHistogram.Row>> closedBlocks;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Key(JobHistogram.Bucket bucket, JobHistogram.GroupBy groupBy, LocalDateTime blockStart) {
+    }
+
+    // Without metrics (tests)
+    public JobHistogramCache(long maxSize, Duration ttl) {
+        this.closedBlocks = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Autowired
+    public JobHistogramCache(@Value("${jobs.histogram.cache.max-size:10000}") long maxSize,
+                             @Value("${jobs.histogram.cache.ttl:10m}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this(maxSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, closedBlocks, "jobs.histogram"); // cache.gets{result=hit|miss}
+    }
+
+    // The rows of the closed blocks starting at the given block starts, in order. Blocks not cached yet are
+    // counted with one query spanning them, and cached only if no change arrived while it ran
+    public List<JobHistogram.Row> get(JobHistogram.Bucket bucket, JobHistogram.GroupBy groupBy, List<LocalDateTime> blockStarts,
+                                      BiFunction<LocalDateTime, LocalDateTime, List<JobHistogram.Row>> query) {
+        List<Key> keys = blockStarts.stream().map(blockStart -> new Key(bucket, groupBy, blockStart)).toList();
+        Map<Key, List<JobHistogram.Row>> blocks = new HashMap<>(closedBlocks.getAllPresent(keys));
+        List<Key> missing = keys.stream().filter(key -> !blocks.containsKey(key)).toList();
+        if (!missing.isEmpty()) {
+            long seen = invalidations.get();
+            Map<Key, List<JobHistogram.Row>> loaded = new HashMap<>();
+            missing.forEach(key -> loaded.put(key, new ArrayList<>()));
+            LocalDateTime to = bucket.nextBlock(missing.get(missing.size() - 1).blockStart());
+            for (JobHistogram.Row row : query.apply(missing.get(0).blockStart(), to)) {
+                List<JobHistogram.Row> block = loaded.get(new Key(bucket, groupBy, bucket.blockStart(row.start())));
+                if (block != null) { // Blocks between the missing ones are cached already
+                    block.add(row);
+                }
+            }
+            loaded.replaceAll((key, rows) -> List.copyOf(rows));
+            blocks.putAll(loaded);
+            if (invalidations.get() == seen) {
+                closedBlocks.putAll(loaded);
+            }
+        }
+        List<JobHistogram.Row> rows = new ArrayList<>();
+        keys.forEach(key -> rows.addAll(blocks.get(key)));
+        return rows;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChange(JobChangeEvent event) {
+        if (event.type() == JobChangeEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        boolean created = event.type() != JobChangeEvent.Type.UPDATED; // Added or removed: every grouping counts it
+        if (created || event.status() != null && event.status() != event.previousStatus()) {
+            invalidate(JobHistogram.GroupBy.STATUS, event.createdAt());
+        }
+        if (created || event.jobType() != null && event.jobType() != event.previousJobType()) {
+            invalidate(JobHistogram.GroupBy.JOB_TYPE, event.createdAt());
+        }
+    }
+
+    // Drop the blocks holding createdAt, or every block of the grouping when it is unknown
+    private void invalidate(JobHistogram.GroupBy groupBy, LocalDateTime createdAt) {
+        invalidations.incrementAndGet();
+        if (createdAt == null) {
+            closedBlocks.asMap().keySet().removeIf(key -> key.groupBy() == groupBy);
+            return;
+        }
+        for (JobHistogram.Bucket bucket : JobHistogram.Bucket.values()) {
+            closedBlocks.invalidate(new Key(bucket, groupBy, bucket.blockStart(createdAt)));
+        }
+    }
+}
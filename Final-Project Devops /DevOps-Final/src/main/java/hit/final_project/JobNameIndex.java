@@ -0,0 +1,341 @@
+package hit.final_project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Component
+// In-memory index over job names behind GET /api/jobs/search/name, so a name search never scans app_job.
+// Every lowercased name is split into trigrams plus the one- and two-character prefixes of its words, and each
+// of these grams maps to a sorted primitive long[] of job IDs (LongPostingList). A query of three or more
+// characters intersects the lists of its trigrams and matches names containing it; a shorter query matches names
+// with a word starting with it. Matches are returned newest (highest ID) first, and the walk stops at the limit.
+// Built off-lock from a streamed scan when the application is ready and swapped in whole, then kept current by
+// JobChangeEvents. Listeners may see events out of order, so an event carrying an older version than the one
+// indexed for the job is skipped, and a deleted job is never brought back. Renamed and deleted jobs leave stale
+// IDs in the lists, which every match is checked against the current name to skip; the lists are rebuilt from
+// the names once stale entries outnumber live ones
+public class JobNameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(JobNameIndex.class);
+    private static final char PREFIX_MARKER = '\u0001'; // Pads word prefixes to three characters
+    private final JobRepository jobRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final Long DELETED = Long.MAX_VALUE; // Indexed version of a deleted or archived job
+    private Snapshot snapshot = new Snapshot(); // Guarded by lock
+    private LongObjectMap<Boolean> changedDuringBuild; // Non-null while the startup scan runs
+    private volatile boolean ready;
+    private final boolean enabled; // Read at runtime (see StartupConfig)
+
+    public JobNameIndex(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                        @Value("${jobs.name-index.enabled:true}") boolean enabled) {
+        this.jobRepository = jobRepository;
+        this.enabled = enabled;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // False until the startup scan has finished (or when disabled); JobService falls back to SQL meanwhile
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            build();
+        }
+    }
+
+    // Index every job with one streamed scan into a new snapshot, without holding the lock, and swap it in.
+    // Changes that arrive meanwhile are applied to the current snapshot at once and win over the row the scan
+    // read, which may be older
+    public void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new LongObjectMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Snapshot built = new Snapshot();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<JobDTO> jobs = jobRepository.streamAllSummaries()) {
+                    jobs.forEach(job -> built.put(job.getId(), job.getJobName()));
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                Snapshot current = snapshot;
+                changedDuringBuild.forEach((id, changed) -> built.copy(current, id));
+                snapshot = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        logger.info("Job name index built: {} jobs, {} grams in {} ms", built.names.size(), built.postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Runs after the surrounding transaction commits (or immediately when there is none)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChange(JobChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            switch (event.type()) {
+                case CREATED, UPDATED -> snapshot.apply(event);
+                case DELETED, ARCHIVED -> {
+                    snapshot.remove(event.jobId());
+                    snapshot.versions.put(event.jobId(), DELETED);
+                }
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.put(event.jobId(), Boolean.TRUE);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit jobs matching the query, newest first; null when the index cannot answer it
+    // (not built yet, or a short query without letters or digits)
+    public List<JobNameMatch> search(String query, int limit) {
+        String normalized = query.strip().toLowerCase(Locale.ROOT);
+        long[] grams = queryGrams(normalized);
+        if (!ready || grams == null) {
+            return null;
+        }
+        boolean wordPrefix = normalized.length() < 3;
+        List<JobNameMatch> matches = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            LongPostingList[] lists = new LongPostingList[grams.length];
+            Snapshot current = snapshot;
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = current.postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return matches; // Some gram occurs in no name
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(LongPostingList::size)); // Walk the shortest list
+            LongPostingList shortest = lists[0];
+            for (int i = shortest.size() - 1; i >= 0 && matches.size() < limit; i--) {
+                long id = shortest.get(i);
+                if (inAll(lists, id)) {
+                    String name = current.names.get(id);
+                    if (name != null && matches(name.toLowerCase(Locale.ROOT), normalized, wordPrefix)) {
+                        matches.add(new JobNameMatch(id, name));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    // The names and gram lists searched; build() fills a new one off-lock
+    private static final class Snapshot {
+        private final LongObjectMap<String> names = new LongObjectMap<>(); // Job ID -> current name
+        private final LongObjectMap<LongPostingList> postings = new LongObjectMap<>(); // Gram -> job IDs
+        // Job ID -> version the indexed name was read at (DELETED once gone); only jobs changed by events
+        private final LongObjectMap<Long> versions = new LongObjectMap<>();
+        private long liveEntries;
+        private long staleEntries;
+
+        // A created or updated job, unless the event is older than what is indexed. An event without a version
+        // (bulk and buffered status updates) never renames, so it only adds a job the index does not have yet
+        private void apply(JobChangeEvent event) {
+            long id = event.jobId();
+            Long indexed = versions.get(id);
+            if (event.jobName() == null || DELETED.equals(indexed)) { // No name: PATCH without one, password change
+                return;
+            }
+            if (event.version() == null) {
+                if (names.get(id) == null) {
+                    put(id, event.jobName());
+                }
+            } else if (indexed == null || indexed < event.version()) {
+                put(id, event.jobName());
+                versions.put(id, event.version());
+            }
+        }
+
+        // Take over the job's entry from another snapshot
+        private void copy(Snapshot from, long id) {
+            String name = from.names.get(id);
+            if (name != null) {
+                put(id, name);
+            } else {
+                remove(id);
+            }
+            Long version = from.versions.get(id);
+            if (version != null) {
+                versions.put(id, version);
+            }
+        }
+
+        private void put(long id, String name) {
+            if (name == null) {
+                remove(id);
+                return;
+            }
+            String previous = names.put(id, name);
+            if (name.equals(previous)) {
+                return;
+            }
+            index(id, name);
+            if (previous != null) {
+                retire(previous); // After indexing the new name, which a compaction there would otherwise index twice
+            }
+        }
+
+        // Add the job to the list of every gram of its name
+        private void index(long id, String name) {
+            long[] grams = grams(name.toLowerCase(Locale.ROOT));
+            for (long gram : grams) {
+                LongPostingList ids = postings.get(gram);
+                if (ids == null) {
+                    ids = new LongPostingList();
+                    postings.put(gram, ids);
+                }
+                ids.add(id);
+            }
+            liveEntries += grams.length;
+        }
+
+        private void remove(long id) {
+            String previous = names.remove(id);
+            if (previous != null) {
+                retire(previous);
+            }
+        }
+
+        // The old name's list entries stay behind as stale entries until the next compaction
+        private void retire(String previousName) {
+            int count = grams(previousName.toLowerCase(Locale.ROOT)).length;
+            liveEntries -= count;
+            staleEntries += count;
+            if (staleEntries > liveEntries && staleEntries > 10_000) {
+                compact();
+            }
+        }
+
+        // Rebuild every list from the current names (under the write lock). Deleted jobs are forgotten here,
+        // long after any late event about them
+        private void compact() {
+            long start = System.nanoTime();
+            postings.clear();
+            liveEntries = 0;
+            staleEntries = 0;
+            long[] ids = new long[names.size()];
+            int[] count = {0};
+            names.forEach((id, name) -> ids[count[0]++] = id);
+            Arrays.sort(ids); // Ascending, so every add is an append
+            for (long id : ids) {
+                index(id, names.get(id));
+            }
+            List<Long> deleted = new ArrayList<>();
+            versions.forEach((id, version) -> {
+                if (DELETED.equals(version)) {
+                    deleted.add(id);
+                }
+            });
+            deleted.forEach(versions::remove);
+            logger.info("Job name index compacted: {} jobs in {} ms", names.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static boolean inAll(LongPostingList[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether a lowercased name matches the query: contains it, or with wordPrefix has a word starting with it
+    static boolean matches(String name, String query, boolean wordPrefix) {
+        if (!wordPrefix) {
+            return name.contains(query);
+        }
+        for (int i = name.indexOf(query); i >= 0; i = name.indexOf(query, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The grams a query must find: its trigrams, or its word prefix when shorter; null when there are none
+    private static long[] queryGrams(String query) {
+        if (query.length() >= 3) {
+            return grams(query, false);
+        }
+        if (query.isEmpty() || !Character.isLetterOrDigit(query.charAt(0))) {
+            return null;
+        }
+        if (query.length() == 1) {
+            return new long[]{pack(PREFIX_MARKER, PREFIX_MARKER, query.charAt(0))};
+        }
+        return Character.isLetterOrDigit(query.charAt(1))
+                ? new long[]{pack(PREFIX_MARKER, query.charAt(0), query.charAt(1))} : null;
+    }
+
+    // Distinct grams of a lowercased name: every trigram, plus the one- and two-character prefix of every word
+    private static long[] grams(String name) {
+        return grams(name, true);
+    }
+
+    private static long[] grams(String text, boolean wordPrefixes) {
+        long[] grams = new long[Math.max(0, text.length() - 2) + (wordPrefixes ? 2 * text.length() : 0)];
+        int count = 0;
+        for (int i = 0; i + 2 < text.length(); i++) {
+            grams[count++] = pack(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        if (wordPrefixes) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                    grams[count++] = pack(PREFIX_MARKER, PREFIX_MARKER, c);
+                    if (i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                        grams[count++] = pack(PREFIX_MARKER, c, text.charAt(i + 1));
+                    }
+                }
+            }
+        }
+        return Arrays.stream(grams, 0, count).filter(gram -> gram != 0).sorted().distinct().toArray();
+    }
+
+    private static long pack(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+}
@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// One result of GET /api/jobs/search/name
+public record JobNameMatch(Long id, String jobName) {
+}
@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// Partial update for PATCH /api/jobs/{id} - null fields keep their current value
+public record JobPatch(String jobName, JobStatus status, JobType jobType) {
+}
@@ -1,25 +1,152 @@
 package hit.final_project;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 // שכבה מקשרת לדאטה בייס sql רלציוני בעזרת גישה לאיטרפייס אחר jpaRepository
-public interface JobRepository extends JpaRepository<Job, Long> {
+// JobRepositoryCustom adds the combined search query and the archive copy (see JobRepositoryImpl)
+public interface JobRepository extends JpaRepository<Job, Long>, JobRepositoryCustom {
+
+    // Selects every column except the password hash, straight into a JobDTO (used by the list endpoints)
+    String SELECT_SUMMARY = "SELECT new hit.final_project.JobDTO(j.id, j.jobName, j.status, j.createdAt, j.updatedAt, j.jobType) FROM Job j ";
 
     // Find jobs by status
-    List<Job> findByStatus(String status);
+    List<Job> findByStatus(JobStatus status);
 
     // Find jobs by job type
-    List<Job> findByJobType(String jobType);
+    List<Job> findByJobType(JobType jobType);
 
     // Find jobs by status and job type
-    List<Job> findByStatusAndJobType(String status, String jobType);
+    List<Job> findByStatusAndJobType(JobStatus status, JobType jobType);
 
     // Find jobs by date range
     @Query("SELECT j FROM Job j WHERE j.createdAt BETWEEN :startDate AND :endDate")
     List<Job> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Find the next page of job summaries after the given ID (keyset pagination, stable ordering by ID)
+    @Query(SELECT_SUMMARY + "WHERE j.id > :afterId ORDER BY j.id")
+    List<JobDTO> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    // Stream all job summaries ordered by ID, fetching rows from the driver in chunks instead of all at once
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_SUMMARY + "ORDER BY j.id")
+    Stream<JobDTO> streamAllSummaries();
+
+    // Find job summaries by status
+    @Query(SELECT_SUMMARY + "WHERE j.status = :status")
+    List<JobDTO> findSummariesByStatus(@Param("status") JobStatus status);
+
+    // Find job summaries by job type
+    @Query(SELECT_SUMMARY + "WHERE j.jobType = :jobType")
+    List<JobDTO> findSummariesByJobType(@Param("jobType") JobType jobType);
+
+    // Find job summaries by date range
+    @Query(SELECT_SUMMARY + "WHERE j.createdAt BETWEEN :startDate AND :endDate")
+    List<JobDTO> findSummariesByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // Find jobs with an ID below beforeId whose name matches the LIKE pattern (lowercase, '\\' escapes), newest first.
+    // Name search falls back to this while JobNameIndex is not built; it scans app_job
+    @Query("SELECT new hit.final_project.JobNameMatch(j.id, j.jobName) FROM Job j "
+            + "WHERE LOWER(j.jobName) LIKE :pattern ESCAPE '\\' AND j.id < :beforeId ORDER BY j.id DESC")
+    List<JobNameMatch> findNameMatches(@Param("pattern") String pattern, @Param("beforeId") long beforeId, Limit limit);
+
+    // Count jobs per status and job type in a single query (used to rebuild JobStats)
+    @Query("SELECT new hit.final_project.JobCount(j.status, j.jobType, COUNT(j)) FROM Job j GROUP BY j.status, j.jobType")
+    List<JobCount> countByStatusAndJobType();
+
+    // Apply a partial update in a single statement without loading the entity first.
+    // Null fields keep their current value; a non-null version makes the update conditional on it.
+    // Returns the number of rows updated (0 when the job is missing or the version is stale)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.jobName = COALESCE(:jobName, j.jobName), j.status = COALESCE(:status, j.status), "
+            + "j.jobType = COALESCE(:jobType, j.jobType), j.updatedAt = :updatedAt, j.version = j.version + 1 "
+            + "WHERE j.id = :id AND (:version IS NULL OR j.version = :version)")
+    int patchJob(@Param("id") Long id, @Param("version") Long version, @Param("jobName") String jobName,
+                 @Param("status") JobStatus status, @Param("jobType") JobType jobType, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // The current version of a job; null when it is missing
+    @Query("SELECT j.version FROM Job j WHERE j.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    // Lock the next chunk of jobs due for archiving (given statuses, last updated before the cutoff), ordered by ID.
+    // The row locks keep concurrent updates out until the chunk has been moved
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Job j WHERE j.status IN :statuses AND j.updatedAt < :cutoff ORDER BY j.id")
+    List<Job> findArchivable(@Param("statuses") Collection<JobStatus> statuses, @Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Lock the next jobs in the given status for JobExecutor, oldest first.
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED where the database supports it (PostgreSQL), so several
+    // executors claim disjoint batches without waiting on each other; H2 falls back to a plain FOR UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT j FROM Job j WHERE j.status = :status ORDER BY j.id")
+    List<Job> findClaimable(@Param("status") JobStatus status, Limit limit);
+
+    // Lock the next jobs in the given status whose executor lease ran out (claimed before the cutoff), skipping
+    // rows another instance holds like findClaimable
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT j FROM Job j WHERE j.status = :status AND j.claimedAt < :claimedBefore ORDER BY j.id")
+    List<Job> findExpiredClaims(@Param("status") JobStatus status, @Param("claimedBefore") LocalDateTime claimedBefore,
+                                Limit limit);
+
+    // Extend the lease of a job an executor still holds, only while it is still under the claim the executor made
+    // (claimedAt is the fencing token, see transitionStatus). The version is left alone: the job itself did not change
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.claimedAt = :claimedAt WHERE j.id = :id AND j.status = :status AND j.claimedAt = :leasedAt")
+    int renewClaim(@Param("id") Long id, @Param("status") JobStatus status, @Param("leasedAt") LocalDateTime leasedAt,
+                   @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Move the given jobs to a status in one statement (after lockSummaries)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.status = :status, j.updatedAt = :updatedAt, j.version = j.version + 1 WHERE j.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") JobStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Change a claimed job's status only if it is still in the expected one and still under the given claim, so an
+    // executor whose lease ran out (and the job was claimed again elsewhere) cannot move it.
+    // Returns the number of rows updated (0 when the job is missing, someone else changed its status or re-claimed it)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.status = :to, j.updatedAt = :updatedAt, j.claimedAt = NULL, j.version = j.version + 1 "
+            + "WHERE j.id = :id AND j.status = :from AND j.claimedAt = :claimedAt")
+    int transitionStatus(@Param("id") Long id, @Param("from") JobStatus from, @Param("to") JobStatus to,
+                         @Param("claimedAt") LocalDateTime claimedAt, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // The stored password hash alone (null when the job has none), for verifying a password without loading the job
+    @Query("SELECT j.password FROM Job j WHERE j.id = :id")
+    Optional<String> findPasswordById(@Param("id") Long id);
+
+    // Replace a hash made with an old cost factor by one made with the current factor, only if the stored hash is
+    // still the one that was verified. The password itself does not change, so neither do the version and updatedAt
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.password = :newHash WHERE j.id = :id AND j.password = :oldHash")
+    int upgradePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Set a new password hash only if the stored hash is still the one the old password was verified against.
+    // Returns the number of rows updated (0 when the job is missing or its password changed in the meantime)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Job j SET j.password = :newHash, j.updatedAt = :updatedAt, j.version = j.version + 1 "
+            + "WHERE j.id = :id AND j.password = :oldHash")
+    int changePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Delete the given jobs in one statement (after copyToArchive)
+    @Modifying
+    @Query("DELETE FROM Job j WHERE j.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,24 @@
+package hit.final_project;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Repository methods that are implemented by hand in JobRepositoryImpl
+public interface JobRepositoryCustom {
+
+    // Find up to limit job summaries matching the specification, ordered by ID
+    List<JobDTO> searchSummaries(Specification<Job> specification, int limit);
+
+    // Lock up to limit jobs matching the specification, ordered by ID, and return their summaries
+    List<JobDTO> lockSummaries(Specification<Job> specification, int limit);
+
+    // Copy the given jobs into app_job_archive with one INSERT ... SELECT; returns the number of rows copied
+    int copyToArchive(List<Long> ids, LocalDateTime archivedAt);
+
+    // Count the jobs created in [from, to) per bucket and status or job type with a single GROUP BY;
+    // rows ordered by bucket start
+    List<JobHistogram.Row> countByCreatedAt(JobHistogram.Bucket bucket, JobHistogram.GroupBy groupBy,
+                                            LocalDateTime from, LocalDateTime to);
+}
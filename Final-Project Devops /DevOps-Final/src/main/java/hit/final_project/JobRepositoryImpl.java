@@ -0,0 +1,87 @@
+package hit.final_project;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Picked up by Spring Data as the implementation of JobRepositoryCustom
+class JobRepositoryImpl implements JobRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Same columns as JobRepository.SELECT_SUMMARY - the password hash is never selected
+    @Override
+    public List<JobDTO> searchSummaries(Specification<Job> specification, int limit) {
+        return entityManager.createQuery(summaryQuery(specification)).setMaxResults(limit).getResultList();
+    }
+
+    // The bulk operations' chunk: only the summary columns are read - no entities are loaded - and the row locks
+    // keep the chunk unchanged until the bulk statement that follows in the same transaction has run
+    @Override
+    public List<JobDTO> lockSummaries(Specification<Job> specification, int limit) {
+        return entityManager.createQuery(summaryQuery(specification))
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Only the filters in the specification become predicates, so the database plans the query for the actual
+    // filters and can use the matching index
+    private CriteriaQuery<JobDTO> summaryQuery(Specification<Job> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<JobDTO> query = cb.createQuery(JobDTO.class);
+        Root<Job> job = query.from(Job.class);
+        query.select(cb.construct(JobDTO.class,
+                        job.get("id"), job.get("jobName"), job.get("status"),
+                        job.get("createdAt"), job.get("updatedAt"), job.get("jobType")))
+                .where(specification.toPredicate(job, query, cb))
+                .orderBy(cb.asc(job.get("id")));
+        return query;
+    }
+
+    // HQL INSERT ... SELECT (not available through @Query) - the rows never leave the database
+    @Override
+    public int copyToArchive(List<Long> ids, LocalDateTime archivedAt) {
+        return entityManager.createQuery("INSERT INTO JobArchive (id, jobName, status, createdAt, updatedAt, jobType, password, archivedAt) "
+                        + "SELECT j.id, j.jobName, j.status, j.createdAt, j.updatedAt, j.jobType, j.password, :archivedAt "
+                        + "FROM Job j WHERE j.id IN :ids")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    // HQL truncate() renders as date_trunc on PostgreSQL and H2 (and the dialect's equivalent elsewhere), so only
+    // the bucket counts leave the database. The bucket unit and grouped attribute come from the enums, never
+    // from the request
+    @Override
+    public List<JobHistogram.Row> countByCreatedAt(JobHistogram.Bucket bucket, JobHistogram.GroupBy groupBy,
+                                                   LocalDateTime from, LocalDateTime to) {
+        String bucketStart = "truncate(j.createdAt, " + bucket.label() + ")";
+        String group = "j." + groupBy.label();
+        List<Object[]> counts = entityManager.createQuery("SELECT " + bucketStart + ", " + group + ", COUNT(j) FROM Job j "
+                        + "WHERE j.createdAt >= :from AND j.createdAt < :to "
+                        + "GROUP BY " + bucketStart + ", " + group + " ORDER BY " + bucketStart, Object[].class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        Map<LocalDateTime, Map<String, Long>> buckets = new LinkedHashMap<>();
+        for (Object[] count : counts) {
+            buckets.computeIfAbsent((LocalDateTime) count[0], start -> new LinkedHashMap<>())
+                    .put(String.valueOf(count[1]), (Long) count[2]); // The status or job type label
+        }
+        List<JobHistogram.Row> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((start, groups) -> rows.add(new JobHistogram.Row(start, groups)));
+        return rows;
+    }
+}
@@ -0,0 +1,17 @@
+package hit.final_project;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// The R2DBC view of an app_job row for ReactiveJobRepository: the summary columns, without the password hash.
+// Mapped to JobDTO before it leaves the controller, so the DTO shared with the JPA stack carries no mapping
+@Table("app_job")
+record JobRow(@Id Long id, String jobName, JobStatus status, LocalDateTime createdAt, LocalDateTime updatedAt,
+              JobType jobType) {
+
+    JobDTO toDto() {
+        return new JobDTO(id, jobName, status, createdAt, updatedAt, jobType);
+    }
+}
@@ -1,61 +1,159 @@
 package hit.final_project;
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 @Service // Marks this class as a service component in the Spring context
+@Observed(name = "jobs.service") // Timer and span per public method, tagged with the method name
 
 // מקבל רפרס לריפוסיטורי ומזריק לקונסטרקטור ומגדיר את המתודות של CRUD
 public class JobService {
     private static final Logger logger = LoggerFactory.getLogger(JobService.class); // Logger instance
     private final JobRepository jobRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final EntityManager entityManager;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher; // Publishes a JobChangeEvent for every mutation
+    private final CacheManager cacheManager; // For evicting the many jobs claimPendingJobs changes at once
+    private final VerifiedPasswordCache verifiedPasswords;
+    private final JobStatusWriteBehind statusWriteBehind;
+    private final JobNameIndex nameIndex;
+    private final JobHistogramCache histogramCache;
+
+    // Outcome of checking a presented password against a job's stored hash
+    public enum PasswordCheck { MATCHED, MISMATCHED, NOT_FOUND }
+
+    private final int bulkChunkSize; // Jobs changed per transaction (and per statement) by the bulk operations
+    private final int batchSize; // Jobs persisted per transaction in createJobs, matched to the Hibernate JDBC batch size
 
     // Constructor-based Dependency Injection (DI)
-    public JobService(JobRepository jobRepository) {
+    public JobService(JobRepository jobRepository, EntityManager entityManager, PasswordHasher passwordHasher,
+                      PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                      CacheManager cacheManager, VerifiedPasswordCache verifiedPasswords,
+                      JobStatusWriteBehind statusWriteBehind, JobNameIndex nameIndex,
+                      JobHistogramCache histogramCache,
+                      @Value("${jobs.bulk.chunk-size:500}") int bulkChunkSize,
+                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.jobRepository = jobRepository;
+        this.entityManager = entityManager;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.verifiedPasswords = verifiedPasswords;
+        this.statusWriteBehind = statusWriteBehind;
+        this.nameIndex = nameIndex;
+        this.histogramCache = histogramCache;
+        this.bulkChunkSize = bulkChunkSize;
+        this.batchSize = batchSize;
     }
 
-    // 1 - Retrieve all jobs
-    public List<Job> getAllJobs() {
-        logger.info("Retrieving all jobs from the database.");
-        return jobRepository.findAll();
+    // 1 - Retrieve one page of jobs with an ID greater than afterId, ordered by ID
+    public List<JobDTO> getJobsPage(long afterId, int limit) {
+        logger.debug("Retrieving up to {} jobs after ID: {}", limit, afterId);
+        return jobRepository.findSummariesAfterId(afterId, Limit.of(limit));
     }
 
     // 2 - Create a new job
-    public Job createJob(String jobName, String status, LocalDateTime createdAt, LocalDateTime updatedAt, String jobType, String password) {
-        logger.info("Creating new job: {}", jobName);
-        Job job = new Job(jobName, status, createdAt, updatedAt, jobType, password);
+    public Job createJob(String jobName, JobStatus status, LocalDateTime createdAt, LocalDateTime updatedAt, JobType jobType, String password) {
+        logger.debug("Creating new job: {}", jobName);
+        Job job = new Job(jobName, status, createdAt, updatedAt, jobType, hashPassword(password));
         Job savedJob = jobRepository.save(job);
         logger.info("Job created successfully with ID: {}", savedJob.getId());
+        eventPublisher.publishEvent(JobChangeEvent.created(savedJob));
         return savedJob;
     }
 
-    // 3 - Retrieve a job by ID
+    // 3 - Retrieve a job by ID (read-through cache, misses are not cached), with any status update still
+    // waiting in JobStatusWriteBehind applied. The cache is used directly so updateJob can read through it too
     public Optional<Job> getJobById(Long id) {
-        logger.info("Retrieving job with ID: {}", id);
-        return jobRepository.findById(id);
+        logger.debug("Retrieving job with ID: {}", id);
+        return findCachedJob(id).map(statusWriteBehind::applyPending);
+    }
+
+    // The job as stored (through the cache), without buffered statuses
+    private Optional<Job> findCachedJob(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.JOBS_CACHE);
+        Job job = cache != null ? cache.get(id, Job.class) : null;
+        if (job == null) {
+            job = jobRepository.findById(id).orElse(null);
+            if (job != null && cache != null) {
+                cache.put(id, job);
+            }
+        }
+        return Optional.ofNullable(job);
     }
 
     // 4 - Update an existing job
-    public Optional<Job> updateJob(Long id, String jobName, String status, LocalDateTime updatedAt, String jobType, String password) {
-        logger.info("Updating job with ID: {}", id);
+    public Optional<Job> updateJob(Long id, String jobName, JobStatus status, LocalDateTime updatedAt, JobType jobType, String password) {
+        return updateJob(id, null, jobName, status, updatedAt, jobType, password);
+    }
+
+    // 4 - Update an existing job only if it is still at the expected version (null skips the check).
+    // A concurrent update between the read and the save is caught by @Version and surfaces as
+    // ObjectOptimisticLockingFailureException.
+    // With write-behind on, an unconditional update that only changes the status (same name and job type, no new
+    // password) is buffered instead: it costs no database access when the job is cached, and the returned job
+    // carries the version it will have once the status is written. A conditional update writes the job's buffered
+    // status first, so that version is the one it is compared against
+    public Optional<Job> updateJob(Long id, Long expectedVersion, String jobName, JobStatus status, LocalDateTime updatedAt, JobType jobType, String password) {
+        logger.debug("Updating job with ID: {}", id);
+        if (expectedVersion != null) {
+            statusWriteBehind.flushIfPending(id);
+        } else if (statusWriteBehind.isEnabled() && status != null && (password == null || password.isEmpty())) {
+            Optional<Job> current = findCachedJob(id);
+            if (current.isPresent() && Objects.equals(current.get().getJobName(), jobName) && current.get().getJobType() == jobType) {
+                logger.debug("Buffering status {} for job with ID: {}", status, id);
+                return Optional.of(statusWriteBehind.offer(current.get(), status, updatedAt));
+            }
+        }
         return Optional.ofNullable(jobRepository.findById(id).map(existingJob -> {
+            if (expectedVersion != null && !expectedVersion.equals(existingJob.getVersion())) {
+                logger.debug("Version conflict for job {}: expected {}, current {}", id, expectedVersion, existingJob.getVersion());
+                throw new JobVersionConflictException(id);
+            }
+            JobStatus previousStatus = existingJob.getStatus();
+            JobType previousJobType = existingJob.getJobType();
             existingJob.setJobName(jobName);
             existingJob.setStatus(status);
             existingJob.setUpdatedAt(updatedAt);
             existingJob.setJobType(jobType);
             if (password != null && !password.isEmpty()) {
-                existingJob.setPassword(passwordEncoder.encode(password));
+                existingJob.setPassword(passwordHasher.hash(password));
             }
             Job updatedJob = jobRepository.save(existingJob);
+            evictCachedJob(id);
             logger.info("Job updated successfully with ID: {}", updatedJob.getId());
+            eventPublisher.publishEvent(JobChangeEvent.updated(updatedJob, previousStatus, previousJobType));
             return updatedJob;
         }).orElseThrow(() -> {
             logger.error("Job not found with ID: {}", id);
@@ -63,32 +161,466 @@ public class JobService {
         }));
     }
 
+    // 4 - Partially update a job with a single UPDATE statement, optionally conditional on its version.
+    // Returns false when the job is missing and throws JobVersionConflictException when the version is stale.
+    // A buffered status is written first when the update is conditional, like updateJob. An unconditional
+    // update reads back the version it wrote, for the event
+    @CacheEvict(cacheNames = CacheConfig.JOBS_CACHE, key = "#id")
+    public boolean patchJob(Long id, Long expectedVersion, JobPatch patch, LocalDateTime updatedAt) {
+        logger.debug("Patching job with ID: {}", id);
+        if (expectedVersion != null) {
+            statusWriteBehind.flushIfPending(id);
+        }
+        Long version = transactionTemplate.execute(status -> {
+            if (jobRepository.patchJob(id, expectedVersion, patch.jobName(), patch.status(), patch.jobType(), updatedAt) == 0) {
+                return null;
+            }
+            return expectedVersion != null ? expectedVersion + 1 : jobRepository.findVersionById(id); // Row locked by the UPDATE
+        });
+        if (version == null) {
+            // The extra lookup only happens on the failure path
+            if (expectedVersion != null && jobRepository.existsById(id)) {
+                throw new JobVersionConflictException(id);
+            }
+            logger.error("Job not found with ID: {}", id);
+            return false;
+        }
+        logger.info("Job patched successfully with ID: {}", id);
+        eventPublisher.publishEvent(JobChangeEvent.patched(id, patch, version)); // Delivered once the transaction commits
+        return true;
+    }
+
     // 5 - Delete a job by ID
+    @CacheEvict(cacheNames = CacheConfig.JOBS_CACHE, key = "#id")
     public void deleteJob(Long id) {
-        logger.info("Deleting job with ID: {}", id);
+        logger.debug("Deleting job with ID: {}", id);
         Job job = jobRepository.findById(id).orElseThrow(() -> {
             logger.error("Job not found with ID: {}", id);
             return new RuntimeException("Job not found");
         });
         jobRepository.delete(job);
         logger.info("Job deleted successfully with ID: {}", id);
+        eventPublisher.publishEvent(JobChangeEvent.deleted(job));
     }
 
     // 6 - Find jobs by status
-    public List<Job> findJobsByStatus(String status) {
-        logger.info("Finding jobs with status: {}", status);
-        return jobRepository.findByStatus(status);
+    public List<JobDTO> findJobsByStatus(JobStatus status) {
+        logger.debug("Finding jobs with status: {}", status);
+        return jobRepository.findSummariesByStatus(status);
     }
 
     // 7 - Find jobs by job type
-    public List<Job> findJobsByJobType(String jobType) {
-        logger.info("Finding jobs with job type: {}", jobType);
-        return jobRepository.findByJobType(jobType);
+    public List<JobDTO> findJobsByJobType(JobType jobType) {
+        logger.debug("Finding jobs with job type: {}", jobType);
+        return jobRepository.findSummariesByJobType(jobType);
     }
 
     // 8 - Find jobs by date range
-    public List<Job> findJobsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        logger.info("Finding jobs between {} and {}", startDate, endDate);
-        return jobRepository.findByDateRange(startDate, endDate);
+    public List<JobDTO> findJobsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        logger.debug("Finding jobs between {} and {}", startDate, endDate);
+        return jobRepository.findSummariesByDateRange(startDate, endDate);
+    }
+
+    // 9 - Stream all jobs ordered by ID
+    // Summaries are not managed entities, so memory stays flat however many rows go through
+    @Transactional(readOnly = true)
+    public void streamAllJobs(Consumer<JobDTO> consumer) {
+        logger.debug("Streaming all jobs from the database.");
+        try (Stream<JobDTO> jobs = jobRepository.streamAllSummaries()) {
+            jobs.forEach(consumer);
+        }
+    }
+
+    // 10 - Create many jobs at once
+    // Jobs are persisted in chunks of batchSize, one transaction and one JDBC batch per chunk.
+    // Returns one result per submitted job, in order; a null entry stands for a job that could not be read.
+    public List<BatchItemResult> createJobs(List<Job> jobs) {
+        logger.info("Creating {} jobs in batches of {}", jobs.size(), batchSize);
+        List<BatchItemResult> results = new ArrayList<>(jobs.size());
+        for (int start = 0; start < jobs.size(); start += batchSize) {
+            results.addAll(createChunk(jobs.subList(start, Math.min(start + batchSize, jobs.size())), start));
+        }
+        logger.info("Batch create finished: {} of {} jobs created", results.stream().filter(r -> r.id() != null).count(), jobs.size());
+        return results;
+    }
+
+    private List<BatchItemResult> createChunk(List<Job> chunk, int offset) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+
+        // Hash the chunk's passwords in parallel on the hashing pool
+        List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Job job = chunk.get(i);
+            CompletableFuture<String> hash = null;
+            if (job == null) {
+                results[i] = BatchItemResult.failed(offset + i, HttpStatus.BAD_REQUEST, "Malformed job");
+            } else if (job.getPassword() == null || job.getPassword().isEmpty()) {
+                hash = CompletableFuture.completedFuture(null);
+            } else {
+                try {
+                    hash = passwordHasher.hashAsync(job.getPassword());
+                } catch (HashingCapacityExceededException e) {
+                    results[i] = BatchItemResult.failed(offset + i, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+                }
+            }
+            hashes.add(hash);
+        }
+
+        // Build the entities that are ready to be saved
+        LocalDateTime now = LocalDateTime.now();
+        List<Job> toSave = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (hashes.get(i) == null) {
+                continue;
+            }
+            Job job = chunk.get(i);
+            try {
+                toSave.add(new Job(
+                        job.getJobName(),
+                        job.getStatus(),
+                        job.getCreatedAt() != null ? job.getCreatedAt() : now,
+                        job.getUpdatedAt() != null ? job.getUpdatedAt() : now,
+                        job.getJobType(),
+                        hashes.get(i).join()
+                ));
+                positions.add(i);
+            } catch (CompletionException e) {
+                results[i] = BatchItemResult.failed(offset + i, HttpStatus.INTERNAL_SERVER_ERROR, "Password hashing failed");
+            }
+        }
+
+        // Save the chunk in a single transaction; Hibernate groups the inserts into one JDBC batch
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jobRepository.saveAll(toSave);
+                entityManager.flush();
+                entityManager.clear(); // Keep the persistence context from growing across chunks
+            });
+            for (int j = 0; j < toSave.size(); j++) {
+                results[positions.get(j)] = BatchItemResult.created(offset + positions.get(j), toSave.get(j).getId());
+                eventPublisher.publishEvent(JobChangeEvent.created(toSave.get(j)));
+            }
+        } catch (DataAccessException e) {
+            logger.error("Failed to save batch of {} jobs starting at index {}", toSave.size(), offset, e);
+            for (int position : positions) {
+                results[position] = BatchItemResult.failed(offset + position, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save job");
+            }
+        }
+        return List.of(results);
+    }
+
+    // 11 - Search jobs by any combination of status, job type and creation time, one page at a time (ordered by ID)
+    // All filters go into a single query so the database can use the matching index
+    public List<JobDTO> searchJobs(JobStatus status, JobType jobType, LocalDateTime from, LocalDateTime to, long afterId, int limit) {
+        logger.debug("Searching jobs with status: {}, job type: {}, created between {} and {}", status, jobType, from, to);
+        Specification<Job> spec = JobSpecifications.idGreaterThan(afterId)
+                .and(JobSpecifications.hasStatus(status))
+                .and(JobSpecifications.hasJobType(jobType))
+                .and(JobSpecifications.createdFrom(from))
+                .and(JobSpecifications.createdTo(to));
+        return jobRepository.searchSummaries(spec, limit);
+    }
+
+    // 12 - Claim up to limit Pending jobs for execution, oldest first: lock them (skipping rows another
+    // executor holds) and move them to In Progress in the same transaction. The returned jobs are detached.
+    // The cache is evicted and the events published after the commit, so a concurrent read cannot cache the
+    // job as Pending again
+    public List<Job> claimPendingJobs(int limit, LocalDateTime claimedAt) {
+        LocalDateTime lease = claimedAt.truncatedTo(ChronoUnit.MICROS); // As stored, so transitionJob can compare it
+        List<Job> claimed = transactionTemplate.execute(status -> {
+            List<Job> locked = jobRepository.findClaimable(JobStatus.PENDING, Limit.of(limit));
+            for (Job job : locked) {
+                job.setStatus(JobStatus.IN_PROGRESS); // Written by dirty checking when the transaction commits
+                job.setUpdatedAt(claimedAt);
+                job.setClaimedAt(lease);
+            }
+            return locked;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return List.of();
+        }
+        announceMoved(claimed, JobStatus.PENDING);
+        logger.debug("Claimed {} pending jobs", claimed.size());
+        return claimed;
+    }
+
+    // 13 - Move a job from one status to another in a single statement, only if its status is still the
+    // expected one and it is still under the claim the job passed in carries (JobExecutor finishing or requeueing
+    // a job it claimed). Returns false when the job is gone, someone else changed its status, or its lease ran out
+    // and it was claimed again in the meantime; the job passed in is updated to match otherwise.
+    // The cache is evicted after the commit, like claimPendingJobs
+    public boolean transitionJob(Job job, JobStatus from, JobStatus to, LocalDateTime updatedAt) {
+        Integer updated = transactionTemplate.execute(status ->
+                jobRepository.transitionStatus(job.getId(), from, to, job.getClaimedAt(), updatedAt));
+        if (updated == null || updated == 0) {
+            logger.warn("Job {} is no longer {} under this claim, not moving it to {}", job.getId(), from, to);
+            return false;
+        }
+        job.setStatus(to);
+        job.setUpdatedAt(updatedAt);
+        job.setClaimedAt(null);
+        logger.info("Job {} moved from {} to {}", job.getId(), from, to);
+        announceMoved(List.of(job), from);
+        return true;
+    }
+
+    // 14 - Check a password against the job's stored hash. Recent successful checks are answered from
+    // VerifiedPasswordCache without a BCrypt compare; a hash made with an older cost factor is replaced after a
+    // successful check, so changing jobs.hashing.bcrypt-strength takes effect without rehashing every job at once.
+    // A job without a password never matches
+    public PasswordCheck verifyPassword(Long id, String password) {
+        logger.debug("Verifying password for job with ID: {}", id);
+        Optional<String> storedHash = jobRepository.findPasswordById(id);
+        if (storedHash.isEmpty()) {
+            return jobRepository.existsById(id) ? PasswordCheck.MISMATCHED : PasswordCheck.NOT_FOUND;
+        }
+        return checkPassword(id, password, storedHash.get()) != null ? PasswordCheck.MATCHED : PasswordCheck.MISMATCHED;
+    }
+
+    // 15 - Change a job's password, given its current one. The update is conditional on the stored hash still
+    // being the one the old password was checked against, so two concurrent changes cannot both win.
+    // A job without a password gets its first one through updateJob
+    public PasswordCheck changePassword(Long id, String oldPassword, String newPassword, LocalDateTime updatedAt) {
+        logger.debug("Changing password for job with ID: {}", id);
+        Optional<String> storedHash = jobRepository.findPasswordById(id);
+        if (storedHash.isEmpty()) {
+            return jobRepository.existsById(id) ? PasswordCheck.MISMATCHED : PasswordCheck.NOT_FOUND;
+        }
+        String verifiedHash = checkPassword(id, oldPassword, storedHash.get());
+        if (verifiedHash == null) {
+            return PasswordCheck.MISMATCHED;
+        }
+        String newHash = passwordHasher.hash(newPassword); // Outside the transaction, like every BCrypt call
+        Integer updated = transactionTemplate.execute(status ->
+                jobRepository.changePassword(id, verifiedHash, newHash, updatedAt));
+        if (updated == null || updated == 0) {
+            logger.warn("Password of job {} changed while it was being verified", id);
+            return PasswordCheck.MISMATCHED;
+        }
+        evictCachedJob(id);
+        logger.info("Password changed for job with ID: {}", id);
+        eventPublisher.publishEvent(JobChangeEvent.passwordChanged(id));
+        return PasswordCheck.MATCHED;
+    }
+
+    // 16 - Delete every job matching the filters (null matches any value); returns the number deleted.
+    // Runs one chunk of bulkChunkSize jobs per transaction, walking up the IDs: lock the chunk's rows (summary
+    // columns only) and remove them with a single DELETE, so no entity is loaded and locks are held briefly
+    public int deleteJobs(JobStatus status, JobType jobType, LocalDateTime olderThan) {
+        logger.info("Deleting jobs with status: {}, job type: {}, last updated before {}", status, jobType, olderThan);
+        int deleted = inChunks(status, jobType, olderThan, chunk -> {
+            int count = jobRepository.deleteAllByIdIn(chunk.stream().map(JobDTO::getId).toList());
+            chunk.forEach(job -> eventPublisher.publishEvent(JobChangeEvent.deleted(job)));
+            return count;
+        });
+        logger.info("Deleted {} jobs", deleted);
+        return deleted;
+    }
+
+    // 17 - Move every job matching the filters to another status, chunked like deleteJobs; returns the number moved.
+    // Jobs already in the target status are left alone
+    public int updateJobStatuses(JobStatus from, JobType jobType, LocalDateTime olderThan, JobStatus to, LocalDateTime updatedAt) {
+        logger.info("Moving jobs with status: {}, job type: {}, last updated before {} to {}", from, jobType, olderThan, to);
+        int updated = inChunks(from, jobType, olderThan, chunk -> {
+            List<JobDTO> moving = chunk.stream().filter(job -> job.getStatus() != to).toList();
+            if (moving.isEmpty()) {
+                return 0;
+            }
+            int count = jobRepository.updateStatusByIdIn(moving.stream().map(JobDTO::getId).toList(), to, updatedAt);
+            moving.forEach(job -> eventPublisher.publishEvent(
+                    JobChangeEvent.statusUpdated(job.getId(), job.getJobName(), to, job.getJobType(), job.getStatus(),
+                            job.getCreatedAt())));
+            return count;
+        });
+        logger.info("Moved {} jobs to {}", updated, to);
+        return updated;
+    }
+
+    // 18 - Find up to limit jobs by name, newest first: names containing the query (ignoring case), or for a query
+    // of one or two characters, names with a word starting with it. Answered from JobNameIndex once it is built;
+    // until then (or when it is disabled) with a LIKE scan. A word starts after any character that is not a letter
+    // or digit, as in the index; LIKE cannot say that, so for a short query the names containing it are read a page
+    // at a time and checked here
+    public List<JobNameMatch> searchJobsByName(String query, int limit) {
+        List<JobNameMatch> matches = nameIndex.search(query, limit);
+        if (matches != null) {
+            return matches;
+        }
+        String normalized = query.strip().toLowerCase(Locale.ROOT);
+        String pattern = "%" + escapeLike(normalized) + "%";
+        logger.debug("Name index not available, searching job names with LIKE for: {}", normalized);
+        if (normalized.length() >= 3) {
+            return jobRepository.findNameMatches(pattern, Long.MAX_VALUE, Limit.of(limit));
+        }
+        matches = new ArrayList<>();
+        long beforeId = Long.MAX_VALUE;
+        while (matches.size() < limit) {
+            List<JobNameMatch> page = jobRepository.findNameMatches(pattern, beforeId, Limit.of(limit));
+            for (JobNameMatch match : page) {
+                if (matches.size() < limit && JobNameIndex.matches(match.jobName().toLowerCase(Locale.ROOT), normalized, true)) {
+                    matches.add(match);
+                }
+            }
+            if (page.size() < limit) {
+                break;
+            }
+            beforeId = page.get(page.size() - 1).id();
+        }
+        return matches;
+    }
+
+    // 19 - Count the jobs created in [from, to) per bucket, by status or job type, with one aggregate query.
+    // Whole buckets in closed blocks (see JobHistogramCache) are served from the cache; the partial bucket at
+    // from and everything after the last closed block (including the current bucket) are counted on every call
+    public JobHistogram getHistogram(LocalDateTime from, LocalDateTime to, JobHistogram.Bucket bucket,
+                                     JobHistogram.GroupBy groupBy, LocalDateTime now) {
+        logger.debug("Counting jobs created between {} and {} per {} by {}", from, to, bucket, groupBy);
+        LocalDateTime cachedFrom = bucket.ceil(from);
+        LocalDateTime cachedTo = bucket.truncate(to);
+        LocalDateTime openBlock = bucket.blockStart(bucket.truncate(now));
+        if (openBlock.isBefore(cachedTo)) {
+            cachedTo = openBlock;
+        }
+        if (!cachedFrom.isBefore(cachedTo)) {
+            return new JobHistogram(bucket, groupBy, jobRepository.countByCreatedAt(bucket, groupBy, from, to));
+        }
+        List<LocalDateTime> blocks = new ArrayList<>();
+        for (LocalDateTime block = bucket.blockStart(cachedFrom); block.isBefore(cachedTo); block = bucket.nextBlock(block)) {
+            blocks.add(block);
+        }
+        List<JobHistogram.Row> rows = new ArrayList<>();
+        if (from.isBefore(cachedFrom)) {
+            rows.addAll(jobRepository.countByCreatedAt(bucket, groupBy, from, cachedFrom));
+        }
+        List<JobHistogram.Row> cached = histogramCache.get(bucket, groupBy, blocks,
+                (blockFrom, blockTo) -> jobRepository.countByCreatedAt(bucket, groupBy, blockFrom, blockTo));
+        for (JobHistogram.Row row : cached) {
+            if (!row.start().isBefore(cachedFrom) && row.start().isBefore(cachedTo)) { // The range may start or end mid-block
+                rows.add(row);
+            }
+        }
+        if (to.isAfter(cachedTo)) {
+            rows.addAll(jobRepository.countByCreatedAt(bucket, groupBy, cachedTo, to));
+        }
+        return new JobHistogram(bucket, groupBy, rows);
+    }
+
+    // 20 - Extend the lease of In Progress jobs an executor still holds, each only if it is still under the claim
+    // the job passed in carries. The renewed jobs are updated to carry the new claim and returned; the others
+    // were released and possibly claimed again elsewhere
+    public List<Job> renewClaims(Collection<Job> jobs, LocalDateTime claimedAt) {
+        LocalDateTime lease = claimedAt.truncatedTo(ChronoUnit.MICROS);
+        List<Job> renewed = transactionTemplate.execute(status -> jobs.stream()
+                .filter(job -> jobRepository.renewClaim(job.getId(), JobStatus.IN_PROGRESS, job.getClaimedAt(), lease) > 0)
+                .toList());
+        if (renewed == null) {
+            return List.of();
+        }
+        renewed.forEach(job -> job.setClaimedAt(lease));
+        return renewed;
+    }
+
+    // 21 - Return up to limit In Progress jobs whose lease ran out (claimed before claimedBefore) to Pending, so
+    // jobs held by an instance that stopped are claimed again. Evicted and announced after the commit
+    public List<Job> releaseExpiredClaims(LocalDateTime claimedBefore, int limit, LocalDateTime updatedAt) {
+        List<Job> released = transactionTemplate.execute(status -> {
+            List<Job> expired = jobRepository.findExpiredClaims(JobStatus.IN_PROGRESS, claimedBefore, Limit.of(limit));
+            for (Job job : expired) {
+                job.setStatus(JobStatus.PENDING);
+                job.setUpdatedAt(updatedAt);
+                job.setClaimedAt(null);
+            }
+            return expired;
+        });
+        if (released == null || released.isEmpty()) {
+            return List.of();
+        }
+        announceMoved(released, JobStatus.IN_PROGRESS);
+        logger.warn("Returned {} jobs with an expired lease to {}", released.size(), JobStatus.PENDING);
+        return released;
+    }
+
+    // Apply a bulk change chunk by chunk, each in its own transaction; the events are delivered once it commits.
+    // change returns the rows its statement affected; the sum is returned
+    private int inChunks(JobStatus status, JobType jobType, LocalDateTime olderThan, ToIntFunction<List<JobDTO>> change) {
+        Cache cache = cacheManager.getCache(CacheConfig.JOBS_CACHE);
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            int[] changed = new int[1];
+            List<JobDTO> chunk = transactionTemplate.execute(tx -> {
+                List<JobDTO> locked = jobRepository.lockSummaries(JobSpecifications.idGreaterThan(cursor)
+                        .and(JobSpecifications.hasStatus(status))
+                        .and(JobSpecifications.hasJobType(jobType))
+                        .and(JobSpecifications.updatedBefore(olderThan)), bulkChunkSize);
+                if (!locked.isEmpty()) {
+                    changed[0] = change.applyAsInt(locked);
+                }
+                return locked;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            for (JobDTO job : chunk) {
+                if (cache != null) {
+                    cache.evict(job.getId());
+                }
+            }
+            total += changed[0];
+            if (chunk.size() < bulkChunkSize) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        return total;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Returns the stored hash the password matched (after any upgrade), or null when it does not match
+    private String checkPassword(Long id, String password, String storedHash) {
+        if (verifiedPasswords.isVerified(id, password, storedHash)) {
+            return storedHash;
+        }
+        if (!passwordHasher.matches(password, storedHash)) {
+            return null;
+        }
+        String hash = storedHash;
+        if (passwordHasher.needsRehash(storedHash)) {
+            String upgradedHash = passwordHasher.hash(password);
+            Integer upgraded = transactionTemplate.execute(status ->
+                    jobRepository.upgradePassword(id, storedHash, upgradedHash));
+            if (upgraded != null && upgraded > 0) {
+                logger.info("Upgraded the password hash of job {} to the current cost factor", id);
+                evictCachedJob(id);
+                hash = upgradedHash;
+            }
+        }
+        verifiedPasswords.put(id, password, hash);
+        return hash;
+    }
+
+    // Evict jobs moved out of the given status and publish their events (after the change has committed)
+    private void announceMoved(List<Job> jobs, JobStatus from) {
+        for (Job job : jobs) {
+            evictCachedJob(job.getId());
+            eventPublisher.publishEvent(JobChangeEvent.updated(job, from, job.getJobType()));
+        }
+    }
+
+    private void evictCachedJob(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.JOBS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    // Hash a raw password exactly once; a job created without a password has no credential
+    private String hashPassword(String password) {
+        return password == null || password.isEmpty() ? null : passwordHasher.hash(password);
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package hit.final_project;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Query criteria for the job search endpoint and the bulk operations
+// Each method returns null for a missing value, and Specification.and() skips null criteria,
+// so the generated query only contains the filters that were actually requested
+final class JobSpecifications {
+
+    private JobSpecifications() {
+    }
+
+    static Specification<Job> idGreaterThan(long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    static Specification<Job> hasStatus(JobStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    static Specification<Job> hasJobType(JobType jobType) {
+        return jobType == null ? null : (root, query, cb) -> cb.equal(root.get("jobType"), jobType);
+    }
+
+    static Specification<Job> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    static Specification<Job> createdTo(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), to);
+    }
+
+    static Specification<Job> updatedBefore(LocalDateTime olderThan) {
+        return olderThan == null ? null : (root, query, cb) -> cb.lessThan(root.get("updatedAt"), olderThan);
+    }
+}
@@ -0,0 +1,150 @@
+package hit.final_project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+// Job counts per status and per job type behind GET /api/jobs/stats, kept in memory so a stats request
+// never touches the database. The counters are rebuilt from a single GROUP BY at startup and then
+// adjusted by every JobChangeEvent. Changes the counters cannot apply exactly (a PATCH does not know the
+// previous status) mark them dirty, and a periodic rebuild corrects any drift.
+public class JobStats {
+    private static final Logger logger = LoggerFactory.getLogger(JobStats.class);
+    private final JobRepository jobRepository;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Counters counters = new Counters();
+
+    // Swapped as a whole on rebuild so readers never see a half-built set.
+    // One counter per enum constant, indexed by ordinal
+    private static final class Counters {
+        final LongAdder total = new LongAdder();
+        final LongAdder[] byStatus = adders(JobStatus.values().length);
+        final LongAdder[] byJobType = adders(JobType.values().length);
+
+        void add(JobStatus status, JobType jobType, long count) {
+            total.add(count);
+            if (status != null) {
+                byStatus[status.ordinal()].add(count);
+            }
+            if (jobType != null) {
+                byJobType[jobType.ordinal()].add(count);
+            }
+        }
+
+        private static LongAdder[] adders(int size) {
+            LongAdder[] adders = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+
+    public JobStats(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    // Current counts; O(number of statuses + job types)
+    public JobStatsDTO snapshot() {
+        Counters current = counters;
+        return new JobStatsDTO(current.total.sum(), sums(current.byStatus, JobStatus.values()),
+                sums(current.byJobType, JobType.values()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChange(JobChangeEvent event) {
+        Counters current = counters;
+        switch (event.type()) {
+            case CREATED -> current.add(event.status(), event.jobType(), 1);
+            case DELETED, ARCHIVED -> current.add(event.previousStatus(), event.previousJobType(), -1);
+            case UPDATED -> {
+                boolean exact = move(current.byStatus, event.previousStatus(), event.status());
+                exact &= move(current.byJobType, event.previousJobType(), event.jobType());
+                if (!exact) {
+                    dirty.set(true); // A value before or after the change is unknown - leave it to the next rebuild
+                }
+            }
+        }
+        if (rebuilding.get()) {
+            dirty.set(true); // The rebuild may or may not have seen this change
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Rebuild soon after the counters were marked dirty
+    @Scheduled(fixedDelayString = "${jobs.stats.dirty-check-interval-ms:5000}",
+            initialDelayString = "${jobs.stats.dirty-check-interval-ms:5000}")
+    public void rebuildIfDirty() {
+        if (dirty.get()) {
+            rebuild();
+        }
+    }
+
+    // Rebuild periodically regardless, to correct any drift
+    @Scheduled(fixedDelayString = "${jobs.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${jobs.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    // Recount everything with one GROUP BY and swap in the result
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            dirty.set(true); // Already running - make sure a rebuild starts after it
+            return;
+        }
+        try {
+            dirty.set(false);
+            Counters rebuilt = new Counters();
+            for (JobCount count : jobRepository.countByStatusAndJobType()) {
+                rebuilt.add(count.status(), count.jobType(), count.count());
+            }
+            counters = rebuilt;
+            logger.debug("Job statistics rebuilt: {} jobs", rebuilt.total.sum());
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            logger.error("Failed to rebuild job statistics", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Move one job between two counters; false when only one side is known (e.g. a PATCH that set the field)
+    private static boolean move(LongAdder[] counts, Enum<?> from, Enum<?> to) {
+        if (from == null || to == null) {
+            return from == null && to == null;
+        }
+        if (from != to) {
+            counts[from.ordinal()].decrement();
+            counts[to.ordinal()].increment();
+        }
+        return true;
+    }
+
+    // Keyed by label in declaration order; values that dropped to zero are left out
+    private static Map<String, Long> sums(LongAdder[] counts, Enum<?>[] values) {
+        Map<String, Long> sums = new LinkedHashMap<>();
+        for (Enum<?> value : values) {
+            long sum = counts[value.ordinal()].sum();
+            if (sum != 0) {
+                sums.put(value.toString(), sum);
+            }
+        }
+        return sums;
+    }
+}
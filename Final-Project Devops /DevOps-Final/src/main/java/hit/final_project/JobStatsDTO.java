@@ -0,0 +1,7 @@
+package hit.final_project;
+
+import java.util.Map;
+
+// Response of GET /api/jobs/stats - job counts overall, per status and per job type
+public record JobStatsDTO(long total, Map<String, Long> byStatus, Map<String, Long> byJobType) {
+}
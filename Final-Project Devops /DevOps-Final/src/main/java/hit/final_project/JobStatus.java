@@ -0,0 +1,68 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+
+// The status of a job. The API reads and writes the label ("In Progress"), the database stores the code
+// as a SMALLINT (see JobStatusConverter). Codes are stored data: never change or reuse one, only add new ones
+public enum JobStatus {
+    PENDING(1, "Pending"),
+    IN_PROGRESS(2, "In Progress"),
+    COMPLETED(3, "Completed"),
+    FAILED(4, "Failed");
+
+    private static final JobStatus[] BY_CODE = new JobStatus[5];
+
+    static {
+        for (JobStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final short code;
+    private final String label;
+
+    JobStatus(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    // The status with the given label, ignoring case
+    @JsonCreator
+    public static JobStatus fromLabel(String label) {
+        for (JobStatus status : values()) {
+            if (status.label.equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status '" + label + "', expected one of " + labels());
+    }
+
+    static JobStatus fromCode(short code) {
+        JobStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown status code " + code);
+        }
+        return status;
+    }
+
+    static String labels() {
+        return Arrays.stream(values()).map(JobStatus::label).toList().toString();
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,19 @@
+package hit.final_project;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores every JobStatus attribute as its SMALLINT code instead of the label or the enum ordinal
+@Converter(autoApply = true)
+public class JobStatusConverter implements AttributeConverter<JobStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(JobStatus status) {
+        return status == null ? null : status.code();
+    }
+
+    @Override
+    public JobStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : JobStatus.fromCode(code);
+    }
+}
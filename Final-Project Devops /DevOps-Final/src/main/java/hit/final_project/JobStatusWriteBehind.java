@@ -0,0 +1,200 @@
+package hit.final_project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+// Write-behind for status-only updates (jobs.write-behind.enabled, off by default). Agents that report a job's
+// status every second mostly overwrite their own previous report, so JobService hands those updates to this
+// buffer instead of the database: one entry per job holding only the latest status. A flush every
+// flush-interval-ms (or as soon as max-pending jobs are waiting) writes them as one JDBC batch, bumping each
+// job's version once, and publishes one JobChangeEvent per job. JobService.getJobById applies buffered
+// statuses, so reads by ID see them before they are written; list and search endpoints see them after the flush.
+// A job read with a buffered status carries the version it will have once written, and conditional updates
+// write the job's buffered status first (flushIfPending), so an ETag handed out for it stays valid.
+// Each write is conditional on the row not having been updated after the buffered status, so an update that went
+// straight to the database later always wins; the buffered status is then dropped and the job evicted, and the
+// version handed out for it never exists (an If-Match with it gets 412). Pending updates are flushed on shutdown
+public class JobStatusWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusWriteBehind.class);
+    private static final String FLUSH_SQL = "UPDATE app_job SET status = ?, updated_at = ?, version = version + 1 "
+            + "WHERE id = ? AND updated_at <= ?";
+    private final Map<Long, PendingStatus> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ExecutorService flushExecutor; // Runs the flushes started by a full buffer, off the request thread
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Counter bufferedUpdates;
+    private final Counter writtenUpdates;
+
+    private final boolean enabled; // Read at runtime (see StartupConfig)
+    private final int maxPending;
+
+    // The latest buffered status of a job. previousStatus is the status in the database before it, for JobStats
+    private record PendingStatus(JobStatus status, LocalDateTime updatedAt, String jobName, JobType jobType,
+                                 JobStatus previousStatus, LocalDateTime createdAt) {
+    }
+
+    public JobStatusWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher, CacheManager cacheManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${jobs.write-behind.enabled:false}") boolean enabled,
+                                @Value("${jobs.write-behind.max-pending:500}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.flushExecutor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("job-write-behind").daemon(true).factory());
+        // buffered / written is the coalescing ratio
+        this.bufferedUpdates = Counter.builder("jobs.write-behind.updates")
+                .tag("result", "buffered")
+                .description("Status updates accepted into the write-behind buffer")
+                .register(meterRegistry);
+        this.writtenUpdates = Counter.builder("jobs.write-behind.updates")
+                .tag("result", "written")
+                .description("Buffered status updates written to the database")
+                .register(meterRegistry);
+        Gauge.builder("jobs.write-behind.pending", pending, Map::size)
+                .description("Jobs with a status update waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Buffer a new status for the job (as stored, without buffered statuses), replacing any status still waiting
+    // for it. Returns a copy of the job as it reads with the new status
+    public Job offer(Job current, JobStatus status, LocalDateTime updatedAt) {
+        PendingStatus update = new PendingStatus(status, updatedAt, current.getJobName(), current.getJobType(),
+                current.getStatus(), current.getCreatedAt());
+        pending.merge(current.getId(), update, (waiting, latest) -> new PendingStatus(latest.status(),
+                latest.updatedAt(), latest.jobName(), latest.jobType(), waiting.previousStatus(), latest.createdAt()));
+        bufferedUpdates.increment();
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+        return withStatus(current, status, updatedAt);
+    }
+
+    // The job with its buffered status applied, or the job itself when nothing newer is waiting for it.
+    // Never modifies the job passed in, which may be the cached instance
+    public Job applyPending(Job job) {
+        if (pending.isEmpty() || job.getId() == null) {
+            return job;
+        }
+        PendingStatus update = pending.get(job.getId());
+        if (update == null || (job.getUpdatedAt() != null && !update.updatedAt().isAfter(job.getUpdatedAt()))) {
+            return job;
+        }
+        return withStatus(job, update.status(), update.updatedAt());
+    }
+
+    // Write the buffered statuses now if the job has one waiting
+    public void flushIfPending(Long id) {
+        if (pending.containsKey(id)) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    // Write every buffered status in one JDBC batch; returns the number of jobs updated.
+    // Entries are removed only after the batch commits (reads keep seeing them until then), and only if no newer
+    // status arrived meanwhile. A failed batch stays buffered for the next flush
+    public synchronized int flush() {
+        List<Map.Entry<Long, PendingStatus>> batch = new ArrayList<>(pending.size());
+        pending.forEach((id, update) -> batch.add(Map.entry(id, update)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<Long, PendingStatus> entry : batch) {
+            Timestamp updatedAt = Timestamp.valueOf(entry.getValue().updatedAt());
+            rows.add(new Object[]{entry.getValue().status().code(), updatedAt, entry.getKey(), updatedAt});
+        }
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, rows));
+        } catch (DataAccessException e) {
+            logger.error("Failed to write {} buffered job status updates, retrying on the next flush", batch.size(), e);
+            return 0;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.JOBS_CACHE);
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = batch.get(i).getKey();
+            PendingStatus update = batch.get(i).getValue();
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements; only 0 means the condition failed
+            boolean applied = counts == null || counts[i] != 0;
+            if (cache != null) {
+                cache.evict(id); // Written: the cached copy has the old version. Dropped: clients re-read the real one
+            }
+            if (applied) {
+                written++;
+                eventPublisher.publishEvent(JobChangeEvent.statusUpdated(id, update.jobName(), update.status(),
+                        update.jobType(), update.previousStatus(), update.createdAt()));
+            }
+            // Superseded by a newer status: that one now follows the status just written
+            pending.computeIfPresent(id, (key, waiting) -> waiting == update ? null
+                    : applied ? new PendingStatus(waiting.status(), waiting.updatedAt(), waiting.jobName(),
+                    waiting.jobType(), update.status(), waiting.createdAt()) : waiting);
+        }
+        writtenUpdates.increment(written);
+        logger.debug("Wrote {} of {} buffered job status updates", written, batch.size());
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        int written = flush();
+        if (written > 0) {
+            logger.info("Wrote {} buffered job status updates on shutdown", written);
+        }
+    }
+
+    private static Job withStatus(Job job, JobStatus status, LocalDateTime updatedAt) {
+        Job copy = new Job(job.getJobName(), status, job.getCreatedAt(), updatedAt, job.getJobType(), job.getPassword());
+        copy.setId(job.getId());
+        copy.setVersion(job.getVersion() == null ? null : job.getVersion() + 1); // A flush bumps it once
+        return copy;
+    }
+}
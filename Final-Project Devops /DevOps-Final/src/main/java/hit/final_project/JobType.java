@@ -0,0 +1,67 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+
+// The kind of work a job does, which picks its JobHandler. The API reads and writes the label ("Build"),
+// the database stores the code as a SMALLINT (see JobTypeConverter). Never change or reuse a code
+public enum JobType {
+    BUILD(1, "Build"),
+    DEPLOY(2, "Deploy"),
+    TEST(3, "Test");
+
+    private static final JobType[] BY_CODE = new JobType[4];
+
+    static {
+        for (JobType jobType : values()) {
+            BY_CODE[jobType.code] = jobType;
+        }
+    }
+
+    private final short code;
+    private final String label;
+
+    JobType(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    // The job type with the given label, ignoring case
+    @JsonCreator
+    public static JobType fromLabel(String label) {
+        for (JobType jobType : values()) {
+            if (jobType.label.equalsIgnoreCase(label)) {
+                return jobType;
+            }
+        }
+        throw new IllegalArgumentException("Unknown job type '" + label + "', expected one of " + labels());
+    }
+
+    static JobType fromCode(short code) {
+        JobType jobType = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (jobType == null) {
+            throw new IllegalArgumentException("Unknown job type code " + code);
+        }
+        return jobType;
+    }
+
+    static String labels() {
+        return Arrays.stream(values()).map(JobType::label).toList().toString();
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,19 @@
+package hit.final_project;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores every JobType attribute as its SMALLINT code instead of the label or the enum ordinal
+@Converter(autoApply = true)
+public class JobTypeConverter implements AttributeConverter<JobType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(JobType jobType) {
+        return jobType == null ? null : jobType.code();
+    }
+
+    @Override
+    public JobType convertToEntityAttribute(Short code) {
+        return code == null ? null : JobType.fromCode(code);
+    }
+}
@@ -0,0 +1,9 @@
+package hit.final_project;
+
+// Thrown when a conditional update targets a version that is no longer current; mapped to 412 Precondition Failed
+public class JobVersionConflictException extends RuntimeException {
+
+    public JobVersionConflictException(Long id) {
+        super("Job " + id + " was modified by another request");
+    }
+}
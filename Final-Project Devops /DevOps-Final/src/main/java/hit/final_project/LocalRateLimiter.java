@@ -0,0 +1,39 @@
+package hit.final_project;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "jobs.rate-limit.store", havingValue = "local", matchIfMissing = true)
+// Keeps each client's buckets in this instance's memory. The map is bounded and clients that stay idle
+// are evicted, so a flood of distinct keys cannot grow it without limit
+public class LocalRateLimiter implements RateLimiter {
+    private final Cache<String, GcraBucket[]> buckets;
+
+    public LocalRateLimiter(@Value("${jobs.rate-limit.max-clients:100000}") long maxClients,
+                            @Value("${jobs.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public long tryAcquire(String clientKey, RateLimitFilter.RequestClass requestClass, RateLimit limit, int permits) {
+        GcraBucket[] clientBuckets = buckets.get(clientKey, key -> newBuckets());
+        return clientBuckets[requestClass.ordinal()].tryAcquire(limit, permits, System.nanoTime());
+    }
+
+    private static GcraBucket[] newBuckets() {
+        GcraBucket[] clientBuckets = new GcraBucket[RateLimitFilter.RequestClass.values().length];
+        for (int i = 0; i < clientBuckets.length; i++) {
+            clientBuckets[i] = new GcraBucket();
+        }
+        return clientBuckets;
+    }
+}
@@ -0,0 +1,139 @@
+package hit.final_project;
+
+import java.util.Arrays;
+
+// Hash map from primitive long keys to values, with open addressing and linear probing. Used by JobNameIndex,
+// where a HashMap<Long, ...> would box every job ID. Key 0 marks an empty slot and cannot be stored.
+// Not thread-safe
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    interface Entry<V> {
+        void accept(long key, V value);
+    }
+
+    LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    // Returns the previous value, or null
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * 3 / 4) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    // Returns the removed value, or null
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                closeGap(slot, mask);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(Entry<V> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                action.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Backward-shift deletion: move later entries of the probe run into the gap so lookups never stop early
+    private void closeGap(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == 0) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            // Move the entry unless its home lies cyclically within (gap, slot]
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Sequential IDs and packed trigrams both cluster, so the key is mixed before masking
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,45 @@
+package hit.final_project;
+
+import java.util.Arrays;
+
+// Sorted set of job IDs in a primitive long array - one JobNameIndex posting list.
+// New jobs get increasing IDs, so adding is almost always an append; membership is a binary search.
+// Not thread-safe
+final class LongPostingList {
+    private long[] ids = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    // Adds the ID unless it is already there
+    void add(long id) {
+        if (size > 0 && id <= ids[size - 1]) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            insert(-index - 1, id);
+            return;
+        }
+        insert(size, id);
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    private void insert(int index, long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+    }
+}
@@ -0,0 +1,25 @@
+package hit.final_project;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+// Application metrics beyond what Spring Boot records on its own (HTTP requests, Hikari, Hibernate,
+// repository invocations). Everything is scraped from /actuator/prometheus; see the management.* properties
+public class MetricsConfig {
+
+    // Queue size, active threads and task wait/run times of the BCrypt pool (executor.* metrics, name=password-hasher)
+    @Bean
+    public MeterBinder passwordHasherMetrics(PasswordHasher passwordHasher) {
+        return registry -> new ExecutorServiceMetrics(passwordHasher.executor(), "password-hasher", Tags.empty()).bindTo(registry);
+    }
+
+    // The same for the job execution pool (name=job-executor): executor.queued is the number of claimed jobs waiting to run
+    @Bean
+    public MeterBinder jobExecutorMetrics(JobExecutor jobExecutor) {
+        return registry -> new ExecutorServiceMetrics(jobExecutor.executor(), "job-executor", Tags.empty()).bindTo(registry);
+    }
+}
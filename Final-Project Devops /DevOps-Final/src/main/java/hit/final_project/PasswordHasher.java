@@ -0,0 +1,110 @@
+package hit.final_project;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+// Hashes job passwords with BCrypt on a dedicated, bounded thread pool.
+// BCrypt costs tens of milliseconds of CPU per call, so the pool caps how many hashes run at once
+// and the bounded queue rejects work (503) instead of letting request latency grow without limit.
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final ObservationRegistry observationRegistry;
+
+    // Without metrics or tracing (tests and benchmarks)
+    public PasswordHasher(int strength, int threads, int queueCapacity) {
+        this(strength, threads, queueCapacity, ObservationRegistry.NOOP);
+    }
+
+    @Autowired
+    public PasswordHasher(@Value("${jobs.hashing.bcrypt-strength:10}") int strength,
+                          @Value("${jobs.hashing.threads:0}") int threads,
+                          @Value("${jobs.hashing.queue-capacity:64}") int queueCapacity,
+                          ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors(); // 0 = one thread per CPU
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hasher-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool started with {} threads, queue capacity {} and BCrypt strength {}",
+                poolSize, queueCapacity, strength);
+    }
+
+    // Hash a raw password, waiting for a hashing thread to finish it
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    // Hash a raw password without waiting for the result
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit("jobs.password.hash", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Check a raw password against a stored hash, on the same pool (a compare costs as much as a hash)
+    public boolean matches(String rawPassword, String hash) {
+        return await(submit("jobs.password.verify", () -> passwordEncoder.matches(rawPassword, hash)));
+    }
+
+    // True when the hash was made with a lower cost factor than the configured one, so it should be
+    // replaced by a fresh hash the next time the raw password is known (after a successful verify)
+    public boolean needsRehash(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    // The hashing pool, for the executor metrics (queue size, active threads, wait time)
+    ThreadPoolExecutor executor() {
+        return executor;
+    }
+
+    // Runs the task on the pool as an observation (timer + span) named after the operation.
+    // The caller's observation is captured here so the span is parented to the request that asked for it
+    private <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+        Observation parent = observationRegistry.getCurrentObservation();
+        try {
+            return CompletableFuture.supplyAsync(() -> Observation.createNotStarted(name, observationRegistry)
+                    .parentObservation(parent)
+                    .observe(task), executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new HashingCapacityExceededException();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,5 @@
+package hit.final_project;
+
+// Body of POST /api/jobs/{id}/verify
+public record PasswordVerificationRequest(String password) {
+}
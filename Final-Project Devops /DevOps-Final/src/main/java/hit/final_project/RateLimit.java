@@ -0,0 +1,15 @@
+package hit.final_project;
+
+// A request budget: a sustained rate plus how many requests may arrive at once
+public record RateLimit(double ratePerSecond, int burst) {
+
+    // Time one request "costs" at the sustained rate
+    long emissionIntervalNanos() {
+        return (long) (1_000_000_000L / ratePerSecond);
+    }
+
+    // How far ahead of now the bucket may run before requests are rejected
+    long capacityNanos() {
+        return burst * emissionIntervalNanos();
+    }
+}
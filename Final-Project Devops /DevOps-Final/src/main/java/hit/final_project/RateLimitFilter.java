@@ -0,0 +1,132 @@
+package hit.final_project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "jobs.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+// Per-client admission control for /api/jobs, applied before the request reaches JobController.
+// Clients are identified by their address: nothing authenticates callers, so a header they choose themselves
+// (such as an API key) would let them open a fresh budget per request. Each client has a separate budget for
+// reads, cheap writes and requests that may BCrypt a password, so a pipeline flooding one kind of request cannot
+// starve the others; a batch create is charged one hashing permit per password (chargeBatch).
+// Over-budget requests get 429 with Retry-After.
+// On the reactive stack ReactiveRateLimitFilter applies the same budgets through admit()
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    static final String CLIENT_KEY_ATTRIBUTE = "hit.final_project.RateLimitFilter.clientKey"; // For chargeBatch
+    static final String REJECTED_MESSAGE = "Rate limit exceeded, try again later";
+    private final RateLimiter rateLimiter;
+    private final Map<RequestClass, RateLimit> limits = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> rejected = new EnumMap<>(RequestClass.class);
+
+    // Which budget a request is charged to
+    enum RequestClass {
+        READ,    // GET
+        WRITE,   // PATCH and DELETE
+        HASHING  // POST and PUT, which may hash a password
+    }
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${jobs.rate-limit.read.rate:100}") double readRate,
+                           @Value("${jobs.rate-limit.read.burst:200}") int readBurst,
+                           @Value("${jobs.rate-limit.write.rate:20}") double writeRate,
+                           @Value("${jobs.rate-limit.write.burst:40}") int writeBurst,
+                           @Value("${jobs.rate-limit.hashing.rate:10}") double hashingRate,
+                           @Value("${jobs.rate-limit.hashing.burst:20}") int hashingBurst) {
+        this.rateLimiter = rateLimiter;
+        limits.put(RequestClass.READ, new RateLimit(readRate, readBurst));
+        limits.put(RequestClass.WRITE, new RateLimit(writeRate, writeBurst));
+        limits.put(RequestClass.HASHING, new RateLimit(hashingRate, hashingBurst));
+        for (RequestClass requestClass : RequestClass.values()) {
+            rejected.put(requestClass, Counter.builder("jobs.rate.limited")
+                    .tag("class", requestClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/jobs");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientKey = clientKey(request.getRemoteAddr());
+        long waitNanos = admit(request.getMethod(), clientKey);
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitNanos)));
+            response.setContentType("text/plain");
+            response.getWriter().write(REJECTED_MESSAGE);
+            return;
+        }
+        request.setAttribute(CLIENT_KEY_ATTRIBUTE, clientKey);
+        filterChain.doFilter(request, response);
+    }
+
+    // Charge a request to the client's budget for its class; returns 0 when admitted, otherwise the nanoseconds to wait
+    long admit(String method, String clientKey) {
+        RequestClass requestClass = classify(method);
+        return acquire(clientKey, requestClass, 1);
+    }
+
+    // Charge a batch create the passwords it will hash; the request itself already paid for one when admitted.
+    // Returns 0 when admitted, otherwise the nanoseconds to wait
+    long chargeBatch(String clientKey, List<Job> jobs) {
+        long passwords = jobs.stream()
+                .filter(job -> job != null && job.getPassword() != null && !job.getPassword().isEmpty())
+                .count();
+        return passwords > 1 ? acquire(clientKey, RequestClass.HASHING, (int) passwords - 1) : 0;
+    }
+
+    private long acquire(String clientKey, RequestClass requestClass, int permits) {
+        long waitNanos = rateLimiter.tryAcquire(clientKey, requestClass, limits.get(requestClass), permits);
+        if (waitNanos > 0) {
+            rejected.get(requestClass).increment();
+            logger.debug("Rate limit exceeded for client {} ({} requests)", clientKey, requestClass);
+        }
+        return waitNanos;
+    }
+
+    // Whether admit() waits on I/O (see RateLimiter.isBlocking)
+    boolean isBlocking() {
+        return rateLimiter.isBlocking();
+    }
+
+    static RequestClass classify(String method) {
+        return switch (method) {
+            case "POST", "PUT" -> RequestClass.HASHING;
+            case "PATCH", "DELETE" -> RequestClass.WRITE;
+            default -> RequestClass.READ;
+        };
+    }
+
+    static String clientKey(String remoteAddress) {
+        return "addr:" + remoteAddress;
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1); // Rounded up
+    }
+}
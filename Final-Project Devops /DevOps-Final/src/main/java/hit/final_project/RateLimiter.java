@@ -0,0 +1,14 @@
+package hit.final_project;
+
+// Admits or rejects a request against a client's budget (see RateLimitFilter)
+public interface RateLimiter {
+
+    // Takes permits from the budget (see GcraBucket for batches larger than the burst);
+    // returns 0 when the request is admitted, otherwise the nanoseconds to wait before retrying
+    long tryAcquire(String clientKey, RateLimitFilter.RequestClass requestClass, RateLimit limit, int permits);
+
+    // True when tryAcquire waits on I/O, so the reactive stack must not call it on an event-loop thread
+    default boolean isBlocking() {
+        return false;
+    }
+}
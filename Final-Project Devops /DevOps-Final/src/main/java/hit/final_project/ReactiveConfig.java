@@ -0,0 +1,98 @@
+package hit.final_project;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+// Reactive stack ("reactive" profile, see application-reactive.properties). Reads go over R2DBC and never block
+// the event loop; writes reuse JobService, whose JDBC calls (and waits on the BCrypt pool) run on a bounded
+// scheduler so a burst of writes queues there instead of starving the Netty threads
+public class ReactiveConfig {
+
+    // Spring Boot leaves out the JDBC DataSource once an R2DBC ConnectionFactory exists, but JPA still needs it.
+    // Built from the usual spring.datasource.* (and spring.datasource.hikari.*) properties
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Runs JobService and JobArchiveService calls. Sized like the connection pool, since each call holds a
+    // connection; calls beyond the queue capacity are rejected with 503 (see ApiExceptionHandler)
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Value("${jobs.reactive.blocking-threads:10}") int threads,
+                                       @Value("${jobs.reactive.blocking-queue-capacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "job-blocking");
+    }
+
+    // Statuses, job types and histogram options in paths and parameters are labels, as on the servlet stack (WebConfig)
+    @Bean
+    public WebFluxConfigurer labelWebFluxConfigurer() {
+        return new WebFluxConfigurer() {
+            @Override
+            public void addFormatters(FormatterRegistry registry) {
+                WebConfig.addLabelConverters(registry);
+            }
+        };
+    }
+
+    // Status and job type columns hold SMALLINT codes, as JobStatusConverter and JobTypeConverter write them for JPA
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory), List.of(
+                new JobStatusReadingConverter(), new JobStatusWritingConverter(),
+                new JobTypeReadingConverter(), new JobTypeWritingConverter()));
+    }
+
+    @ReadingConverter
+    static class JobStatusReadingConverter implements Converter<Short, JobStatus> {
+        @Override
+        public JobStatus convert(Short code) {
+            return JobStatus.fromCode(code);
+        }
+    }
+
+    @WritingConverter
+    static class JobStatusWritingConverter implements Converter<JobStatus, Short> {
+        @Override
+        public Short convert(JobStatus status) {
+            return status.code();
+        }
+    }
+
+    @ReadingConverter
+    static class JobTypeReadingConverter implements Converter<Short, JobType> {
+        @Override
+        public JobType convert(Short code) {
+            return JobType.fromCode(code);
+        }
+    }
+
+    @WritingConverter
+    static class JobTypeWritingConverter implements Converter<JobType, Short> {
+        @Override
+        public Short convert(JobType jobType) {
+            return jobType.code();
+        }
+    }
+}
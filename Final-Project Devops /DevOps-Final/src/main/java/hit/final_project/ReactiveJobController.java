@@ -0,0 +1,466 @@
+package hit.final_project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RestController
+@RequestMapping("/api/jobs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+// JobController for the reactive stack ("reactive" profile): the same paths, parameters, headers and bodies.
+// Reads come from ReactiveJobRepository over R2DBC. Endpoints that return every matching job are a Flux, so rows
+// go out as the client reads them and a slow client slows the query down instead of filling memory; the paged
+// endpoints collect their page to set X-Next-After-Id. Writes, the change feed, stats and the archive use the same
+// services as JobController, with the blocking calls on the bounded scheduler from ReactiveConfig
+public class ReactiveJobController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveJobController.class);
+    private static final Sort BY_ID = Sort.by("id");
+    private final ReactiveJobRepository jobRepository;
+    private final R2dbcEntityTemplate template;
+    private final JobService jobService;
+    private final JobChangeFeed changeFeed;
+    private final JobStats jobStats;
+    private final JobArchiveService jobArchiveService;
+    private final JobStatusWriteBehind statusWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RateLimitFilter> rateLimits; // Absent when jobs.rate-limit.enabled=false
+    private final Scheduler blockingScheduler;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+    private final Duration sseTimeout;
+
+    public ReactiveJobController(ReactiveJobRepository jobRepository,
+                                 R2dbcEntityTemplate template,
+                                 JobService jobService,
+                                 JobChangeFeed changeFeed,
+                                 JobStats jobStats,
+                                 JobArchiveService jobArchiveService,
+                                 JobStatusWriteBehind statusWriteBehind,
+                                 ObjectMapper objectMapper,
+                                 ObjectProvider<RateLimitFilter> rateLimits,
+                                 Scheduler blockingScheduler,
+                                 @Value("${jobs.page.default-size:100}") int defaultPageSize,
+                                 @Value("${jobs.page.max-size:1000}") int maxPageSize,
+                                 @Value("${jobs.batch.max-size:10000}") int maxBatchSize,
+                                 @Value("${jobs.changes.sse-timeout:30m}") Duration sseTimeout) {
+        this.jobRepository = jobRepository;
+        this.template = template;
+        this.jobService = jobService;
+        this.changeFeed = changeFeed;
+        this.jobStats = jobStats;
+        this.jobArchiveService = jobArchiveService;
+        this.statusWriteBehind = statusWriteBehind;
+        this.objectMapper = objectMapper;
+        this.rateLimits = rateLimits;
+        this.blockingScheduler = blockingScheduler;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.sseTimeout = sseTimeout;
+    }
+
+    // 1 - Retrieve jobs one page at a time, ordered by ID (keyset pagination)
+    @GetMapping
+    public Mono<ResponseEntity<List<JobDTO>>> getAllJobs(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to retrieve jobs after ID: {}", afterId);
+        int pageSize = pageSize(limit);
+        return jobRepository.findPageAfterId(afterId, pageSize).map(JobRow::toDto).collectList()
+                .map(jobs -> JobController.page(jobs, pageSize));
+    }
+
+    // 2 - Create a new job
+    @PostMapping
+    public Mono<ResponseEntity<Job>> createJob(@RequestBody Job job) {
+        logger.debug("Received request to create a new job.");
+        return blocking(() -> jobService.createJob(
+                job.getJobName(),
+                job.getStatus(),
+                job.getCreatedAt() != null ? job.getCreatedAt() : LocalDateTime.now(),
+                job.getUpdatedAt() != null ? job.getUpdatedAt() : LocalDateTime.now(),
+                job.getJobType(),
+                job.getPassword()
+        )).map(createdJob -> new ResponseEntity<>(createdJob, HttpStatus.CREATED));
+    }
+
+    // 3 - Retrieve a job by ID, with any buffered status update applied (see JobService.getJobById)
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Job>> getJobById(@PathVariable Long id) {
+        logger.debug("Received request to retrieve job with ID: {}", id);
+        return jobRepository.findJobById(id)
+                .map(statusWriteBehind::applyPending)
+                .map(found -> ResponseEntity.ok().eTag(JobController.etag(found.getVersion())).body(found))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // 4 - Update a job by ID (conditional with If-Match, like JobController)
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Job>> updateJob(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Job job
+    ) {
+        logger.debug("Received request to update job with ID: {}", id);
+        Long expectedVersion = JobController.expectedVersion(id, ifMatch);
+        return blocking(() -> jobService.updateJob(id, expectedVersion, job.getJobName(), job.getStatus(),
+                LocalDateTime.now(), job.getJobType(), job.getPassword()))
+                .map(updatedJob -> updatedJob
+                        .map(updated -> ResponseEntity.ok().eTag(JobController.etag(updated.getVersion())).body(updated))
+                        .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+    }
+
+    // 4 - Partially update a job by ID with a single UPDATE statement
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Void>> patchJob(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JobPatch patch
+    ) {
+        logger.debug("Received request to patch job with ID: {}", id);
+        Long expectedVersion = JobController.expectedVersion(id, ifMatch);
+        return blocking(() -> jobService.patchJob(id, expectedVersion, patch, LocalDateTime.now()))
+                .map(patched -> {
+                    if (!patched) {
+                        return new ResponseEntity<Void>(HttpStatus.NOT_FOUND);
+                    }
+                    ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+                    if (expectedVersion != null) {
+                        response.eTag(JobController.etag(expectedVersion + 1));
+                    }
+                    return response.build();
+                });
+    }
+
+    // 5 - Delete a job by ID
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteJob(@PathVariable Long id) {
+        logger.debug("Received request to delete job with ID: {}", id);
+        return blocking(() -> {
+            try {
+                jobService.deleteJob(id);
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            } catch (RuntimeException e) {
+                logger.error("Error deleting job with ID: {}", id);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        });
+    }
+
+    // 6 - Retrieve jobs by status
+    @GetMapping("/status/{status}")
+    public Flux<JobDTO> getJobsByStatus(@PathVariable JobStatus status) {
+        logger.debug("Received request to retrieve jobs by status: {}", status);
+        return jobRepository.findByStatus(status, BY_ID).map(JobRow::toDto);
+    }
+
+    // 7 - Retrieve jobs by job type
+    @GetMapping("/jobType/{jobType}")
+    public Flux<JobDTO> getJobsByJobType(@PathVariable JobType jobType) {
+        logger.debug("Received request to retrieve jobs by job type: {}", jobType);
+        return jobRepository.findByJobType(jobType, BY_ID).map(JobRow::toDto);
+    }
+
+    // 8 - Retrieve jobs by a date range
+    @GetMapping("/date-range")
+    public Flux<JobDTO> getJobsByDateRange(
+            @RequestParam("startDate") LocalDateTime startDate,
+            @RequestParam("endDate") LocalDateTime endDate
+    ) {
+        logger.debug("Received request to retrieve jobs by date range: {} - {}", startDate, endDate);
+        return jobRepository.findByCreatedAtBetween(startDate, endDate, BY_ID).map(JobRow::toDto);
+    }
+
+    // 9 - Stream all jobs as newline-delimited JSON, one job per line
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<JobDTO> streamAllJobs() {
+        logger.debug("Received request to stream all jobs.");
+        return jobRepository.findAll(BY_ID).map(JobRow::toDto);
+    }
+
+    // 10 - Create many jobs from a JSON array
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<BatchItemResult>>> createJobs(
+            @RequestBody List<Job> jobs,
+            @RequestAttribute(value = RateLimitFilter.CLIENT_KEY_ATTRIBUTE, required = false) String clientKey
+    ) {
+        logger.debug("Received request to create {} jobs.", jobs.size());
+        return createJobBatch(jobs, clientKey);
+    }
+
+    // 11 - Create many jobs from newline-delimited JSON, one job per line
+    // A line that is not a valid job is reported as a failed item; reading stops one line past the limit
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<List<BatchItemResult>>> createJobsFromNdjson(
+            @RequestBody Flux<String> lines,
+            @RequestAttribute(value = RateLimitFilter.CLIENT_KEY_ATTRIBUTE, required = false) String clientKey
+    ) {
+        logger.debug("Received request to create jobs from NDJSON.");
+        return lines.filter(line -> !line.isBlank())
+                .take(maxBatchSize + 1L)
+                .collect(ArrayList<Job>::new, (jobs, line) -> jobs.add(readJob(line, jobs.size())))
+                .flatMap(jobs -> createJobBatch(jobs, clientKey));
+    }
+
+    // The job on one NDJSON line, or null when the line is not a valid job
+    private Job readJob(String line, int index) {
+        try {
+            return objectMapper.readValue(line, Job.class);
+        } catch (IOException e) {
+            logger.error("Skipping malformed NDJSON line {}", index);
+            return null;
+        }
+    }
+
+    // The batch is charged on the blocking scheduler, where a Redis-backed limiter may wait
+    private Mono<ResponseEntity<List<BatchItemResult>>> createJobBatch(List<Job> jobs, String clientKey) {
+        if (jobs.size() > maxBatchSize) {
+            logger.error("Batch create rejected: more than {} jobs", maxBatchSize);
+            return Mono.just(new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE));
+        }
+        RateLimitFilter limiter = rateLimits.getIfAvailable();
+        return blocking(() -> {
+            long waitNanos = limiter != null && clientKey != null ? limiter.chargeBatch(clientKey, jobs) : 0;
+            if (waitNanos > 0) {
+                logger.debug("Batch create rejected: hashing rate limit exceeded for client {}", clientKey);
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimitFilter.retryAfterSeconds(waitNanos)))
+                        .<List<BatchItemResult>>build();
+            }
+            return ResponseEntity.ok(jobService.createJobs(jobs));
+        });
+    }
+
+    // 12 - Search jobs by any combination of status, job type and creation time range, paged like GET /api/jobs
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<JobDTO>>> searchJobs(
+            @RequestParam(value = "status", required = false) JobStatus status,
+            @RequestParam(value = "jobType", required = false) JobType jobType,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to search jobs with status: {}, job type: {}, created between {} and {}", status, jobType, from, to);
+        int pageSize = pageSize(limit);
+        // Only the requested filters go into the query, as with JobSpecifications
+        Criteria criteria = Criteria.where("id").greaterThan(afterId);
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (jobType != null) {
+            criteria = criteria.and("jobType").is(jobType);
+        }
+        if (from != null) {
+            criteria = criteria.and("createdAt").greaterThanOrEquals(from);
+        }
+        if (to != null) {
+            criteria = criteria.and("createdAt").lessThanOrEquals(to);
+        }
+        return template.select(JobRow.class)
+                .matching(Query.query(criteria).sort(BY_ID).limit(pageSize))
+                .all()
+                .map(JobRow::toDto)
+                .collectList()
+                .map(jobs -> JobController.page(jobs, pageSize));
+    }
+
+    // 13 - Long-poll the change feed: the changes after "after" as soon as there are any, or an empty page after timeoutMs
+    @GetMapping("/changes")
+    public Mono<JobChangePage> getJobChanges(
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMs,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to poll job changes after sequence {}", after);
+        long timeout = changeFeed.pollTimeout(timeoutMs);
+        long cursor = changeFeed.cursor(epoch, after);
+        int pageSize = pageSize(limit);
+        if (timeout == 0) {
+            return Mono.fromSupplier(() -> changeFeed.changesAfter(cursor, pageSize));
+        }
+        return nextChanges(cursor, pageSize)
+                .timeout(Duration.ofMillis(timeout), Mono.just(new JobChangePage(changeFeed.epoch(), cursor, false, List.of())));
+    }
+
+    // 14 - Subscribe to the change feed as server-sent events, replaying the changes after "after" (or Last-Event-ID).
+    // Each page is only fetched once the client has taken the previous one, so a slow subscriber holds no backlog
+    // here; one that falls further behind than the replay buffer gets a resync event, like a reconnecting one
+    @GetMapping(value = "/changes/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> subscribeToJobChanges(
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        logger.debug("Received request to subscribe to job changes");
+        return Flux.defer(() -> {
+            AtomicLong cursor = new AtomicLong(lastEventId != null ? changeFeed.cursor(lastEventId) : changeFeed.cursor(epoch, after));
+            return Mono.defer(() -> nextChanges(cursor.get(), maxPageSize))
+                    .doOnNext(page -> cursor.set(page.nextAfter()))
+                    .repeat()
+                    .concatMapIterable(ReactiveJobController::events);
+        }).take(sseTimeout);
+    }
+
+    // The next page of changes after the cursor, as soon as there is one
+    private Mono<JobChangePage> nextChanges(long cursor, int limit) {
+        return Mono.create(sink -> sink.onDispose(changeFeed.onChangesAfter(cursor, limit, sink::success)::run));
+    }
+
+    // A page as SSE events: a resync marker when the cursor was out of the buffer, then one event per change
+    private static List<ServerSentEvent<Object>> events(JobChangePage page) {
+        List<ServerSentEvent<Object>> events = new ArrayList<>();
+        if (page.resyncRequired()) {
+            // The id resumes at the first replayed change should the connection drop right after this event
+            long resumeAfter = page.changes().isEmpty() ? page.nextAfter() : page.changes().get(0).sequence() - 1;
+            events.add(ServerSentEvent.builder((Object) "resync").event("resync")
+                    .id(JobChangeFeed.eventId(page.epoch(), resumeAfter)).build());
+        }
+        for (JobChange change : page.changes()) {
+            events.add(ServerSentEvent.builder((Object) change).id(JobChangeFeed.eventId(page.epoch(), change.sequence())).build());
+        }
+        return events;
+    }
+
+    // 15 - Job counts overall, per status and per job type, served from in-memory counters
+    @GetMapping("/stats")
+    public JobStatsDTO getJobStats() {
+        logger.debug("Received request to retrieve job statistics");
+        return jobStats.snapshot();
+    }
+
+    // 16 - Retrieve archived jobs one page at a time, ordered by ID
+    @GetMapping("/archive")
+    public Mono<ResponseEntity<List<JobDTO>>> getArchivedJobs(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to retrieve archived jobs after ID: {}", afterId);
+        int pageSize = pageSize(limit);
+        return blocking(() -> JobController.page(jobArchiveService.getArchivedJobsPage(afterId, pageSize), pageSize));
+    }
+
+    // 17 - Retrieve an archived job by ID
+    @GetMapping("/archive/{id}")
+    public Mono<ResponseEntity<JobDTO>> getArchivedJobById(@PathVariable Long id) {
+        logger.debug("Received request to retrieve archived job with ID: {}", id);
+        return blocking(() -> jobArchiveService.getArchivedJobById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+    }
+
+    // 18 - Check a job's password (204, 403 or 404, like JobController)
+    @PostMapping("/{id}/verify")
+    public Mono<ResponseEntity<Void>> verifyPassword(@PathVariable Long id, @RequestBody PasswordVerificationRequest request) {
+        logger.debug("Received request to verify the password of job with ID: {}", id);
+        if (request.password() == null || request.password().isEmpty()) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return blocking(() -> JobController.passwordResponse(jobService.verifyPassword(id, request.password())));
+    }
+
+    // 19 - Change a job's password given the current one
+    @PostMapping("/{id}/password")
+    public Mono<ResponseEntity<Void>> changePassword(@PathVariable Long id, @RequestBody UpdatePasswordRequest request) {
+        logger.debug("Received request to change the password of job with ID: {}", id);
+        if (!JobController.isValid(request)) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return blocking(() -> JobController.passwordResponse(jobService.changePassword(id, request.getOldPassword(),
+                request.getNewPassword(), LocalDateTime.now())));
+    }
+
+    // 20 - Delete every job matching the filters in bulk (at least one filter is required)
+    @DeleteMapping
+    public Mono<ResponseEntity<BulkResult>> deleteJobs(
+            @RequestParam(value = "status", required = false) JobStatus status,
+            @RequestParam(value = "jobType", required = false) JobType jobType,
+            @RequestParam(value = "olderThan", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime olderThan
+    ) {
+        logger.debug("Received request to delete jobs with status: {}, job type: {}, last updated before {}", status, jobType, olderThan);
+        if (status == null && jobType == null && olderThan == null) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return blocking(() -> ResponseEntity.ok(new BulkResult(jobService.deleteJobs(status, jobType, olderThan))));
+    }
+
+    // 21 - Move every job matching the filters to another status in bulk
+    @PatchMapping("/status")
+    public Mono<ResponseEntity<BulkResult>> updateJobStatuses(@RequestBody BulkStatusUpdate update) {
+        logger.debug("Received request to move jobs with status: {}, job type: {}, last updated before {} to {}",
+                update.from(), update.jobType(), update.olderThan(), update.to());
+        if (!JobController.isValid(update)) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return blocking(() -> ResponseEntity.ok(new BulkResult(jobService.updateJobStatuses(update.from(),
+                update.jobType(), update.olderThan(), update.to(), LocalDateTime.now()))));
+    }
+
+    // 22 - Find jobs by name, newest first. Runs on the blocking scheduler, since before the name index is built
+    // the search falls back to SQL
+    @GetMapping("/search/name")
+    public Mono<ResponseEntity<List<JobNameMatch>>> searchJobsByName(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        logger.debug("Received request to search jobs by name: {}", query);
+        if (query == null || query.isBlank()) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        int pageSize = pageSize(limit);
+        return blocking(() -> ResponseEntity.ok(jobService.searchJobsByName(query, pageSize)));
+    }
+
+    // 23 - Jobs created per minute, hour or day in [from, to), by status or job type
+    @GetMapping("/histogram")
+    public Mono<ResponseEntity<JobHistogram>> getHistogram(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam("bucket") JobHistogram.Bucket bucket,
+            @RequestParam(value = "groupBy", defaultValue = "status") JobHistogram.GroupBy groupBy
+    ) {
+        logger.debug("Received request for a histogram of jobs created between {} and {} per {} by {}", from, to, bucket, groupBy);
+        if (!JobController.isValidHistogramRange(from, to, bucket)) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return blocking(() -> ResponseEntity.ok(jobService.getHistogram(from, to, bucket, groupBy, LocalDateTime.now())));
+    }
+
+    // Run a blocking service call (JDBC, BCrypt) off the event loop
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
+    }
+
+    // Requested page size, clamped to [1, maxPageSize]
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+}
@@ -0,0 +1,29 @@
+package hit.final_project;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Reads app_job over R2DBC for the reactive stack ("reactive" profile). Rows are job summaries (JobRow), so the
+// password hash is never selected, and every Flux emits rows as the driver delivers them, only as fast as the
+// client consumes them. Writes still go through JobService (JPA), which keeps the events, cache and stats in step
+public interface ReactiveJobRepository extends R2dbcRepository<JobRow, Long> {
+
+    // One page of jobs with an ID greater than afterId, ordered by ID
+    @Query("SELECT id, job_name, status, created_at, updated_at, job_type FROM app_job WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<JobRow> findPageAfterId(long afterId, int limit);
+
+    // The full job (with its version for the ETag), as GET /api/jobs/{id} returns it
+    @Query("SELECT * FROM app_job WHERE id = :id")
+    Mono<Job> findJobById(long id);
+
+    Flux<JobRow> findByStatus(JobStatus status, Sort sort);
+
+    Flux<JobRow> findByJobType(JobType jobType, Sort sort);
+
+    Flux<JobRow> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Sort sort);
+}
@@ -0,0 +1,65 @@
+package hit.final_project;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "jobs.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+// RateLimitFilter for the reactive stack ("reactive" profile): the same per-client budgets, counters and 429 response.
+// The in-memory limiter answers on the event loop; a Redis-backed one is called on the blocking scheduler
+public class ReactiveRateLimitFilter implements WebFilter, Ordered {
+    private final RateLimitFilter rateLimits;
+    private final Scheduler blockingScheduler;
+
+    public ReactiveRateLimitFilter(RateLimitFilter rateLimits, Scheduler blockingScheduler) {
+        this.rateLimits = rateLimits;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE; // Before security and the handlers, like the servlet filter
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith("/api/jobs")) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientKey = RateLimitFilter.clientKey(
+                remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "unknown");
+        exchange.getAttributes().put(RateLimitFilter.CLIENT_KEY_ATTRIBUTE, clientKey);
+        String method = request.getMethod().name();
+        Mono<Long> waitNanos = rateLimits.isBlocking()
+                ? Mono.fromCallable(() -> rateLimits.admit(method, clientKey)).subscribeOn(blockingScheduler)
+                : Mono.fromCallable(() -> rateLimits.admit(method, clientKey));
+        return waitNanos.flatMap(wait -> wait > 0 ? reject(exchange.getResponse(), wait) : chain.filter(exchange));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimitFilter.retryAfterSeconds(waitNanos)));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        DataBuffer body = response.bufferFactory().wrap(RateLimitFilter.REJECTED_MESSAGE.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
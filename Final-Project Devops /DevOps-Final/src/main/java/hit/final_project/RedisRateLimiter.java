@@ -0,0 +1,60 @@
+package hit.final_project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "jobs.rate-limit.store", havingValue = "redis")
+// Shares the buckets between instances through Redis ("redis" profile). Each check is one round trip running
+// the same GCRA as GcraBucket in a Lua script, so it is atomic without locks; the key expires once the bucket is full again.
+// If Redis is unreachable requests are admitted rather than failing the API
+public class RedisRateLimiter implements RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+    private static final RedisScript<Long> GCRA_SCRIPT = RedisScript.of("""
+            local interval = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            if tat < now then tat = now end
+            local wait = tat + interval - now - capacity
+            if wait > 0 then return wait end
+            local new_tat = tat + interval * permits
+            redis.call('SET', KEYS[1], new_tat, 'PX', math.ceil((new_tat - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public long tryAcquire(String clientKey, RateLimitFilter.RequestClass requestClass, RateLimit limit, int permits) {
+        String key = "jobs:rate-limit:" + requestClass.name().toLowerCase() + ":" + clientKey;
+        try {
+            Long waitMicros = redisTemplate.execute(GCRA_SCRIPT, List.of(key),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(limit.emissionIntervalNanos())),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(limit.capacityNanos())),
+                    String.valueOf(permits));
+            return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+        } catch (DataAccessException e) {
+            logger.debug("Rate limiter store unavailable, admitting request: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true; // One Redis round trip per check
+    }
+}
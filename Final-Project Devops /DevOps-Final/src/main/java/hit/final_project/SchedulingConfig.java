@@ -0,0 +1,9 @@
+package hit.final_project;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling // Turns on the @Scheduled background tasks (e.g. reconciling JobStats)
+public class SchedulingConfig {
+}
@@ -0,0 +1,12 @@
+package hit.final_project;
+
+import java.time.Duration;
+
+// Stands in for a real build, test or deployment step: it only takes the configured time
+public record SimulatedJobHandler(JobType jobType, int priority, Duration duration) implements JobHandler {
+
+    @Override
+    public void execute(Job job) throws InterruptedException {
+        Thread.sleep(duration);
+    }
+}
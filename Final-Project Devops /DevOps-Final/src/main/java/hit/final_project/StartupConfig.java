@@ -0,0 +1,20 @@
+package hit.final_project;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+// With spring.main.lazy-initialization=true ("prod" profile) beans are only created when first used.
+// The request path and the background listeners are still created at startup, so the first request
+// does not pay for Hibernate, the hashing pool and the controllers, and scheduled tasks are registered.
+// The AOT-processed build ("cds" Maven profile) fixes the set of beans at build time, so on/off switches such as
+// jobs.seed.enabled are read at runtime by the beans themselves rather than with @ConditionalOnProperty
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerJobBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(JobController.class, ReactiveJobController.class, JobChangeFeed.class, JobStats.class,
+                JobExecutor.class);
+    }
+}
@@ -0,0 +1,73 @@
+package hit.final_project;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+@Component
+// Remembers recent successful password checks so a client that verifies every few seconds does not pay a
+// BCrypt compare each time. Entries are keyed by job ID and a keyed digest of the presented password (HMAC with
+// a random per-process key, so the raw password is never held and the digests are useless outside this process),
+// and hold the stored hash they were checked against: once the password changes the entry no longer matches
+public class VerifiedPasswordCache {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private final Cache<Key, String> verified;
+    private final SecretKey digestKey;
+
+    private record Key(long jobId, String digest) {
+    }
+
+    // Without metrics (tests)
+    public VerifiedPasswordCache(long maxSize, Duration ttl) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl) // A short TTL bounds how long a verification outlives a change elsewhere
+                .recordStats()
+                .build();
+        try {
+            this.digestKey = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    @Autowired
+    public VerifiedPasswordCache(@Value("${jobs.password.verify-cache.max-size:10000}") long maxSize,
+                                 @Value("${jobs.password.verify-cache.ttl:60s}") Duration ttl,
+                                 MeterRegistry meterRegistry) {
+        this(maxSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jobs.password.verified"); // cache.gets{result=hit|miss}
+    }
+
+    // True when this password was verified against this exact stored hash within the TTL
+    public boolean isVerified(long jobId, String rawPassword, String hash) {
+        return hash.equals(verified.getIfPresent(new Key(jobId, digest(rawPassword))));
+    }
+
+    // Record a successful check of the password against the stored hash
+    public void put(long jobId, String rawPassword, String hash) {
+        verified.put(new Key(jobId, digest(rawPassword)), hash);
+    }
+
+    private String digest(String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM); // Not thread-safe, and cheap to create
+            mac.init(digestKey);
+            return HexFormat.of().formatHex(mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
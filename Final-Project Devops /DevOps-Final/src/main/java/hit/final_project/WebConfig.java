@@ -0,0 +1,25 @@
+package hit.final_project;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+// Path variables and request parameters name statuses and job types by label ("In Progress"), like the JSON does,
+// and histogram buckets and groupings by their labels ("hour", "jobType").
+// An unknown value fails the conversion before the controller runs and is answered with 400 (see ApiExceptionHandler)
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        addLabelConverters(registry);
+    }
+
+    // Also registered for WebFlux by ReactiveConfig
+    static void addLabelConverters(FormatterRegistry registry) {
+        registry.addConverter(String.class, JobStatus.class, JobStatus::fromLabel);
+        registry.addConverter(String.class, JobType.class, JobType::fromLabel);
+        registry.addConverter(String.class, JobHistogram.Bucket.class, JobHistogram.Bucket::fromLabel);
+        registry.addConverter(String.class, JobHistogram.GroupBy.class, JobHistogram.GroupBy::fromLabel);
+    }
+}
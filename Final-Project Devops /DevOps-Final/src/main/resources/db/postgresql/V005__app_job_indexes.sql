@@ -0,0 +1,9 @@
+-- Indexes declared on Job (user-005) for an app_job table created before them.
+-- Hibernate only creates them with a new schema (or with spring.jpa.hibernate.ddl-auto=update, which the
+-- "prod" profile sets). Run outside a transaction: CONCURRENTLY builds each index without blocking writes.
+-- psql -h <host> -U postgres -d events -f V005__app_job_indexes.sql
+
+-- Also serves status-only lookups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_job_status_job_type ON app_job (status, job_type);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_job_job_type ON app_job (job_type);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_job_created_at ON app_job (created_at);
@@ -0,0 +1,9 @@
+-- The optimistic-locking version (user-010) for an app_job table created before it.
+-- spring.jpa.hibernate.ddl-auto=update adds the column without a value, and an update comparing against NULL
+-- never matches (PUT with If-Match answers 412, "version = version + 1" stays NULL). Run in one transaction.
+-- psql -h <host> -U postgres -d events -1 -f V010__app_job_version.sql
+
+ALTER TABLE app_job ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE app_job SET version = 0 WHERE version IS NULL;
+ALTER TABLE app_job ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE app_job ALTER COLUMN version SET NOT NULL;
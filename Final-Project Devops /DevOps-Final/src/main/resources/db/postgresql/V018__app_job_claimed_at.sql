@@ -0,0 +1,9 @@
+-- JobExecutor's claim lease for an app_job table created before it.
+-- Hibernate only adds the column with a new schema (or with spring.jpa.hibernate.ddl-auto=update, which the
+-- "prod" profile sets). Run outside a transaction: CONCURRENTLY builds the index without blocking writes.
+-- psql -h <host> -U postgres -d events -f V018__app_job_claimed_at.sql
+
+ALTER TABLE app_job ADD COLUMN IF NOT EXISTS claimed_at timestamp(6);
+
+-- Only claimed jobs carry a lease, so the index behind the expired-lease check stays small
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_job_claimed_at ON app_job (claimed_at) WHERE claimed_at IS NOT NULL;
@@ -0,0 +1,55 @@
+-- Converts the status and job_type columns of app_job and app_job_archive from the old VARCHAR labels to the
+-- SMALLINT codes of JobStatus and JobType. ddl-auto=update does not change a column's type, so a database created
+-- before the enums needs this once. Labels are matched ignoring case and surrounding spaces. A value that is no
+-- label (free text the API used to accept) becomes NULL; the original is kept in app_job_unmapped_value first.
+-- Runs in one transaction and rewrites both tables, so schedule it with the application stopped.
+-- psql -h <host> -U postgres -d events -1 -f V019__app_job_status_job_type_codes.sql
+
+CREATE TABLE IF NOT EXISTS app_job_unmapped_value (
+    table_name  varchar(32)  NOT NULL,
+    id          bigint       NOT NULL,
+    column_name varchar(32)  NOT NULL,
+    value       varchar(255),
+    PRIMARY KEY (table_name, id, column_name)
+);
+
+DO $$
+DECLARE
+    tbl text;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['app_job', 'app_job_archive'] LOOP
+        -- Skip tables that are missing or already converted, so the script can be run again
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = tbl AND column_name = 'status' AND data_type = 'character varying') THEN
+            EXECUTE format($sql$
+                INSERT INTO app_job_unmapped_value (table_name, id, column_name, value)
+                SELECT %1$L, id, 'status', status FROM %1$I
+                WHERE status IS NOT NULL
+                  AND lower(trim(status)) NOT IN ('pending', 'in progress', 'completed', 'failed')
+                ON CONFLICT DO NOTHING$sql$, tbl);
+            EXECUTE format($sql$
+                ALTER TABLE %I ALTER COLUMN status TYPE smallint USING CASE lower(trim(status))
+                    WHEN 'pending' THEN 1
+                    WHEN 'in progress' THEN 2
+                    WHEN 'completed' THEN 3
+                    WHEN 'failed' THEN 4
+                END$sql$, tbl);
+        END IF;
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = tbl AND column_name = 'job_type' AND data_type = 'character varying') THEN
+            EXECUTE format($sql$
+                INSERT INTO app_job_unmapped_value (table_name, id, column_name, value)
+                SELECT %1$L, id, 'job_type', job_type FROM %1$I
+                WHERE job_type IS NOT NULL
+                  AND lower(trim(job_type)) NOT IN ('build', 'deploy', 'test')
+                ON CONFLICT DO NOTHING$sql$, tbl);
+            EXECUTE format($sql$
+                ALTER TABLE %I ALTER COLUMN job_type TYPE smallint USING CASE lower(trim(job_type))
+                    WHEN 'build' THEN 1
+                    WHEN 'deploy' THEN 2
+                    WHEN 'test' THEN 3
+                END$sql$, tbl);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,92 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// DELETE /api/jobs and PATCH /api/jobs/status with chunks of two jobs, so every run spans several chunks
+@SpringBootTest(properties = "jobs.bulk.chunk-size=2")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JobBulkOperationsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JobChangeFeed changeFeed;
+
+    @Test
+    void testBulkStatusUpdateAndDelete() throws Exception {
+        String jobsJson = "[ { \"jobName\": \"Bulk Job 1\", \"status\": \"Pending\", \"jobType\": \"Build\" }, "
+                + "{ \"jobName\": \"Bulk Job 2\", \"status\": \"Pending\", \"jobType\": \"Build\" }, "
+                + "{ \"jobName\": \"Bulk Job 3\", \"status\": \"Pending\", \"jobType\": \"Build\" } ]";
+        mockMvc.perform(post("/api/jobs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jobsJson))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/jobs/2")) // Cache a job the bulk update changes
+                .andExpect(jsonPath("$.status").value("Pending"));
+
+        // Seeded "Deploy Project" and the three new jobs, over two chunks
+        mockMvc.perform(patch("/api/jobs/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"from\": \"Pending\", \"to\": \"Failed\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(4));
+        mockMvc.perform(get("/api/jobs/2"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status").value("Failed"));
+        mockMvc.perform(get("/api/jobs/stats"))
+                .andExpect(jsonPath("$.byStatus.Failed").value(4))
+                .andExpect(jsonPath("$.byStatus.Pending").doesNotExist());
+
+        mockMvc.perform(delete("/api/jobs")
+                        .param("status", "Failed")
+                        .param("jobType", "Build"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(3));
+        mockMvc.perform(get("/api/jobs/stats"))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byStatus.Failed").value(1));
+        MvcResult changes = mockMvc.perform(get("/api/jobs/changes").param("epoch", changeFeed.epoch()).param("after", "3").param("timeoutMs", "0"))
+                .andReturn(); // After the three CREATED changes of the batch
+        mockMvc.perform(asyncDispatch(changes))
+                .andExpect(jsonPath("$.changes.length()").value(7)) // One change per job moved or deleted
+                .andExpect(jsonPath("$.changes[6].event.type").value("DELETED"));
+
+        // Without a filter nothing is touched
+        mockMvc.perform(delete("/api/jobs"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/jobs/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"to\": \"Failed\" }"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBulkDeleteByLastUpdate() throws Exception {
+        // Every seeded job was last updated at startup; only the filters given become predicates
+        mockMvc.perform(delete("/api/jobs")
+                        .param("olderThan", LocalDateTime.now().minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(0));
+        mockMvc.perform(delete("/api/jobs")
+                        .param("olderThan", LocalDateTime.now().plusMinutes(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(3));
+        mockMvc.perform(get("/api/jobs/stats"))
+                .andExpect(jsonPath("$.total").value(0));
+    }
+}
@@ -0,0 +1,81 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobChangeFeedTest {
+
+    private final JobChangeFeed feed = new JobChangeFeed(4, Duration.ofSeconds(30), Duration.ofMinutes(1));
+
+    private static JobChangeEvent created(long id) {
+        return new JobChangeEvent(JobChangeEvent.Type.CREATED, id, "Job " + id, JobStatus.PENDING, JobType.BUILD, null, null, LocalDateTime.now(), 0L, null);
+    }
+
+    @Test
+    void testChangesAfterCursor() {
+        for (long id = 1; id <= 3; id++) {
+            feed.onJobChange(created(id));
+        }
+
+        JobChangePage page = feed.changesAfter(1, 10);
+
+        assertFalse(page.resyncRequired());
+        assertEquals(2, page.changes().size());
+        assertEquals(2, page.changes().get(0).sequence());
+        assertEquals(3, page.nextAfter());
+    }
+
+    @Test
+    void testCursorOutsideBufferRequiresResync() {
+        for (long id = 1; id <= 6; id++) {
+            feed.onJobChange(created(id));
+        }
+
+        // Only the last 4 changes (3..6) are still buffered
+        JobChangePage page = feed.changesAfter(0, 10);
+        assertTrue(page.resyncRequired());
+        assertEquals(3, page.changes().get(0).sequence());
+
+        // A cursor ahead of the feed comes from before a restart
+        assertTrue(feed.changesAfter(42, 10).resyncRequired());
+    }
+
+    @Test
+    void testCursorFromAnotherEpochRequiresResync() {
+        for (long id = 1; id <= 3; id++) {
+            feed.onJobChange(created(id));
+        }
+
+        // Sequence 1 of a previous process is not sequence 1 of this one
+        assertEquals(1, feed.cursor(feed.epoch(), 1L));
+        assertTrue(feed.changesAfter(feed.cursor("0ld3p0ch", 1L), 10).resyncRequired());
+        assertTrue(feed.changesAfter(feed.cursor(null, 1L), 10).resyncRequired());
+        assertTrue(feed.changesAfter(feed.cursor("1"), 10).resyncRequired()); // Last-Event-ID without an epoch
+        assertEquals(2, feed.changesAfter(feed.cursor(feed.epoch() + ":1"), 10).changes().size());
+    }
+
+    @Test
+    void testPasswordChangesAreNotServed() {
+        feed.onJobChange(created(1));
+        feed.onJobChange(JobChangeEvent.passwordChanged(1L));
+
+        assertEquals(1, feed.lastSequence());
+    }
+
+    @Test
+    void testPollWaitsForNextChange() {
+        DeferredResult<JobChangePage> result = feed.poll(null, null, 10, 10_000);
+        assertFalse(result.hasResult());
+
+        feed.onJobChange(created(1));
+
+        JobChangePage page = (JobChangePage) result.getResult();
+        assertEquals(1, page.changes().size());
+        assertEquals(1L, page.changes().get(0).event().jobId());
+    }
+}
@@ -1,16 +1,31 @@
 package hit.final_project;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +56,15 @@ public class JobControllerIntegrationTest {
     // WebApplicationContext is the Spring context used for web applications,
     // which holds all the beans and components.
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JobArchiveService jobArchiveService;
+
+    @Autowired
+    private JobChangeFeed changeFeed;
+
     @BeforeEach
     public void setup() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -68,6 +92,365 @@ public class JobControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray()); // Expects that the response is an array.
     }
 
+    @Test
+    public void testGetJobsPage() throws Exception {
+        // The database is seeded with 3 jobs, so a page of 2 must point at the next page
+        mockMvc.perform(get("/api/jobs").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(header().string(JobController.NEXT_AFTER_ID_HEADER, "2"));
+
+        // The last page holds the remaining job and has no cursor
+        mockMvc.perform(get("/api/jobs").param("afterId", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(header().doesNotExist(JobController.NEXT_AFTER_ID_HEADER));
+    }
+
+    @Test
+    public void testGetJobsAsCborAndSmile() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/jobs").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode jobs = new CBORMapper().readTree(cbor);
+        assertEquals(3, jobs.size());
+        assertEquals("Build Project", jobs.get(0).get("jobName").asText());
+        assertTrue(jobs.get(0).get("createdAt").isTextual()); // Dates are written like the JSON ones
+
+        byte[] smile = mockMvc.perform(get("/api/jobs/status/Pending").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Deploy Project", new SmileMapper().readTree(smile).get(0).get("jobName").asText());
+    }
+
+    @Test
+    public void testListEndpointsOmitPassword() throws Exception {
+        // Every seeded job has a password, but list responses never carry the hash
+        mockMvc.perform(get("/api/jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].jobName").value("Build Project"))
+                .andExpect(jsonPath("$[*].password").isEmpty());
+
+        mockMvc.perform(get("/api/jobs/status/Pending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].jobType").value("Deploy"))
+                .andExpect(jsonPath("$[*].password").isEmpty());
+
+        mockMvc.perform(get("/api/jobs/jobType/Test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[*].password").isEmpty());
+    }
+
+    @Test
+    public void testStatusAndJobTypeLabels() throws Exception {
+        // Labels match ignoring case; the response always carries the canonical label
+        mockMvc.perform(get("/api/jobs/status/{status}", "in progress"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].status").value("In Progress"));
+
+        // Unknown values are rejected before reaching the service
+        mockMvc.perform(get("/api/jobs/status/Running"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(Matchers.containsString("[Pending, In Progress, Completed, Failed]")));
+        mockMvc.perform(get("/api/jobs/search").param("jobType", "Lint"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Bad Job\", \"status\": \"Running\", \"jobType\": \"Build\" }"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/jobs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobType\": \"Lint\" }"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchJobs() throws Exception {
+        // Seeded jobs: Build/In Progress, Deploy/Pending, Test/Completed
+        mockMvc.perform(get("/api/jobs/search").param("status", "Pending").param("jobType", "Deploy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].jobName").value("Deploy Project"));
+
+        mockMvc.perform(get("/api/jobs/search").param("status", "Pending").param("jobType", "Build"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // Only a time range, in the future - nothing was created there yet
+        mockMvc.perform(get("/api/jobs/search").param("from", "2999-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // No filters at all pages through every job
+        mockMvc.perform(get("/api/jobs/search").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(JobController.NEXT_AFTER_ID_HEADER, "2"));
+    }
+
+    @Test
+    public void testStreamJobs() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/jobs/stream")) // The body is written asynchronously
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(600_000, result.getRequest().getAsyncContext().getTimeout()); // jobs.stream.timeout, not the default
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(3, body.lines().count()); // One line per seeded job
+    }
+
+    @Test
+    public void testGetJobChanges() throws Exception {
+        mockMvc.perform(patch("/api/jobs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"status\": \"Completed\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/jobs/2"))
+                .andExpect(status().isNoContent());
+
+        MvcResult result = mockMvc.perform(get("/api/jobs/changes").param("epoch", changeFeed.epoch()).param("after", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.epoch").value(changeFeed.epoch()))
+                .andExpect(jsonPath("$.nextAfter").value(2))
+                .andExpect(jsonPath("$.resyncRequired").value(false))
+                .andExpect(jsonPath("$.changes[0].event.type").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[0].event.status").value("Completed"))
+                .andExpect(jsonPath("$.changes[1].event.type").value("DELETED"))
+                .andExpect(jsonPath("$.changes[1].event.previousStatus").value("Pending"));
+
+        // A cursor issued before a restart has another epoch
+        result = mockMvc.perform(get("/api/jobs/changes").param("epoch", "0ld3p0ch").param("after", "1"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(jsonPath("$.resyncRequired").value(true))
+                .andExpect(jsonPath("$.nextAfter").value(2))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+    }
+
+    @Test
+    public void testGetJobStats() throws Exception {
+        mockMvc.perform(get("/api/jobs/stats")) // Counted from the seeded jobs at startup
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byStatus.Pending").value(1))
+                .andExpect(jsonPath("$.byJobType.Build").value(1));
+
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Stats Job\", \"status\": \"Pending\", \"jobType\": \"Build\" }"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/api/jobs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Build Project\", \"status\": \"Completed\", \"jobType\": \"Build\" }"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/jobs/stats")) // Updated in place by the change events
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.byStatus.Pending").value(2))
+                .andExpect(jsonPath("$.byStatus.Completed").value(2))
+                .andExpect(jsonPath("$.byStatus['In Progress']").doesNotExist())
+                .andExpect(jsonPath("$.byJobType.Build").value(2));
+    }
+
+    @Test
+    public void testServiceAndHashingMetrics() throws Exception {
+        mockMvc.perform(get("/api/jobs/1"))
+                .andExpect(status().isOk());
+
+        // Tests use the in-memory registry; the same meters are exported at /actuator/prometheus
+        mockMvc.perform(get("/actuator/metrics/jobs.service").param("tag", "method:getJobById"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(1));
+        mockMvc.perform(get("/actuator/metrics/jobs.password.hash")) // The seeded passwords
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(3));
+    }
+
+    @Test
+    public void testArchiveJobs() throws Exception {
+        mockMvc.perform(get("/api/jobs/3")) // Cache the completed job
+                .andExpect(status().isOk());
+
+        // Every seeded job is older than this cutoff, but only "Test Project" is completed
+        assertEquals(1, jobArchiveService.archiveJobs(Set.of(JobStatus.COMPLETED), LocalDateTime.now().plusMinutes(1)));
+
+        mockMvc.perform(get("/api/jobs/3"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/jobs/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].jobName").value("Test Project"));
+        mockMvc.perform(get("/api/jobs/archive/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("Completed"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        mockMvc.perform(get("/api/jobs/stats"))
+                .andExpect(jsonPath("$.total").value(2));
+    }
+
+    @Test
+    public void testSearchJobsByName() throws Exception {
+        // The three seeded "... Project" jobs, newest first
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "PROJECT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[2].jobName").value("Build Project"));
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "project").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "pr")) // Short queries match word starts only
+                .andExpect(jsonPath("$.length()").value(3));
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "ro"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // Created, renamed and deleted jobs are found (or not) right away
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Nightly Release\", \"status\": \"Pending\", \"jobType\": \"Deploy\" }"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(patch("/api/jobs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Release Build\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/jobs/2"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "release"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].jobName").value("Nightly Release"))
+                .andExpect(jsonPath("$[1].id").value(1));
+        mockMvc.perform(get("/api/jobs/search/name").param("q", "project"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].jobName").value("Test Project"));
+
+        mockMvc.perform(get("/api/jobs/search/name").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testHistogram() throws Exception {
+        String jobsJson = "[ { \"jobName\": \"Old Job 1\", \"status\": \"Pending\", \"jobType\": \"Build\", \"createdAt\": \"2024-01-01T10:05:00\" }, "
+                + "{ \"jobName\": \"Old Job 2\", \"status\": \"Failed\", \"jobType\": \"Build\", \"createdAt\": \"2024-01-01T10:40:00\" }, "
+                + "{ \"jobName\": \"Old Job 3\", \"status\": \"Pending\", \"jobType\": \"Deploy\", \"createdAt\": \"2024-01-01T11:15:00\" } ]";
+        String response = mockMvc.perform(post("/api/jobs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jobsJson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number oldJobId = JsonPath.read(response, "$[0].id");
+
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00")
+                        .param("bucket", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bucket").value("hour"))
+                .andExpect(jsonPath("$.groupBy").value("status"))
+                .andExpect(jsonPath("$.buckets.length()").value(2)) // Empty hours are left out
+                .andExpect(jsonPath("$.buckets[0].start").value("2024-01-01T10:00:00"))
+                .andExpect(jsonPath("$.buckets[0].counts.Pending").value(1))
+                .andExpect(jsonPath("$.buckets[0].counts.Failed").value(1))
+                .andExpect(jsonPath("$.buckets[1].counts.Pending").value(1));
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00")
+                        .param("bucket", "Day")
+                        .param("groupBy", "jobType"))
+                .andExpect(jsonPath("$.buckets.length()").value(1))
+                .andExpect(jsonPath("$.buckets[0].counts.Build").value(2))
+                .andExpect(jsonPath("$.buckets[0].counts.Deploy").value(1));
+
+        // The closed day is cached, but changing or deleting a job created in it drops it
+        mockMvc.perform(patch("/api/jobs/" + oldJobId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobType\": \"Deploy\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00")
+                        .param("bucket", "day")
+                        .param("groupBy", "jobType"))
+                .andExpect(jsonPath("$.buckets[0].counts.Build").value(1))
+                .andExpect(jsonPath("$.buckets[0].counts.Deploy").value(2));
+        mockMvc.perform(delete("/api/jobs/" + oldJobId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00")
+                        .param("bucket", "day")
+                        .param("groupBy", "jobType"))
+                .andExpect(jsonPath("$.buckets[0].counts.Build").value(1))
+                .andExpect(jsonPath("$.buckets[0].counts.Deploy").value(1));
+
+        // Unknown bucket, empty range, too many buckets
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00")
+                        .param("bucket", "week"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2024-01-02T00:00:00")
+                        .param("to", "2024-01-01T00:00:00")
+                        .param("bucket", "hour"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/jobs/histogram")
+                        .param("from", "2023-01-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00")
+                        .param("bucket", "minute"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testCreateJobsBatch() throws Exception {
+        String jobsJson = "[ { \"jobName\": \"Batch Job 1\", \"status\": \"Pending\", \"jobType\": \"Build\" }, "
+                + "null, "
+                + "{ \"jobName\": \"Batch Job 2\", \"status\": \"Pending\", \"jobType\": \"Test\", \"password\": \"password123\" } ]";
+
+        mockMvc.perform(post("/api/jobs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jobsJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3)) // One result per submitted job
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].status").value(400)) // The null entry is reported, not fatal
+                .andExpect(jsonPath("$[2].status").value(201));
+
+        mockMvc.perform(get("/api/jobs"))
+                .andExpect(jsonPath("$.length()").value(5)); // 3 seeded jobs + 2 created
+    }
+
+    @Test
+    public void testCreateJobsBatchFromNdjson() throws Exception {
+        String jobsNdjson = "{ \"jobName\": \"Batch Job 1\", \"status\": \"Pending\", \"jobType\": \"Build\" }\n"
+                + "not json\n"
+                + "\n"
+                + "{ \"jobName\": \"Batch Job 2\", \"status\": \"Pending\", \"jobType\": \"Test\" }\n";
+
+        mockMvc.perform(post("/api/jobs/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(jobsNdjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3)) // Blank lines are skipped
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("Malformed job"))
+                .andExpect(jsonPath("$[2].status").value(201));
+    }
 
     @Test
     public void testUpdateJob() throws Exception {
@@ -90,6 +473,122 @@ public class JobControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("Completed")); // Expects that the status field in the response is "Completed".
     }
 
+    @Test
+    public void testGetJobByIdIsCachedUntilUpdated() throws Exception {
+        mockMvc.perform(get("/api/jobs/1"))
+                .andExpect(status().isOk());
+        assertNotNull(cacheManager.getCache(CacheConfig.JOBS_CACHE).get(1L)); // The first read fills the cache
+
+        String updatedJobJson = "{ \"jobName\": \"Updated Job\", \"status\": \"Completed\", \"jobType\": \"Deploy\" }";
+        mockMvc.perform(put("/api/jobs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedJobJson))
+                .andExpect(status().isOk());
+        assertNull(cacheManager.getCache(CacheConfig.JOBS_CACHE).get(1L)); // The update invalidates the entry
+
+        mockMvc.perform(get("/api/jobs/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobName").value("Updated Job"));
+    }
+
+    @Test
+    public void testUpdateJobWithIfMatch() throws Exception {
+        mockMvc.perform(get("/api/jobs/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        String updatedJobJson = "{ \"jobName\": \"Updated Job\", \"status\": \"Completed\", \"jobType\": \"Deploy\" }";
+        mockMvc.perform(put("/api/jobs/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedJobJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // A second writer still holding the old ETag must not overwrite the update
+        mockMvc.perform(put("/api/jobs/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedJobJson))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testPatchJob() throws Exception {
+        mockMvc.perform(patch("/api/jobs/2")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"status\": \"Completed\" }"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/api/jobs/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.jobName").value("Deploy Project")) // Omitted fields are unchanged
+                .andExpect(jsonPath("$.status").value("Completed"));
+
+        mockMvc.perform(patch("/api/jobs/2")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"status\": \"Pending\" }"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch("/api/jobs/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"status\": \"Pending\" }"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testVerifyAndChangePassword() throws Exception {
+        String jobJson = "{ \"jobName\": \"Agent Job\", \"status\": \"Pending\", \"jobType\": \"Build\", \"password\": \"password123\" }";
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jobJson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/jobs/4/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"password123\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/jobs/4/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"wrong\" }"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/jobs/4/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"oldPassword\": \"wrong\", \"newPassword\": \"rotated456\" }"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/jobs/4/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"oldPassword\": \"password123\", \"newPassword\": \"rotated456\" }"))
+                .andExpect(status().isNoContent());
+
+        // The old password no longer verifies, even though its last check was cached
+        mockMvc.perform(post("/api/jobs/4/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"password123\" }"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/jobs/4/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"rotated456\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/jobs/4"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\"")); // A password change is a new version
+
+        // Seeded job 1 has password1
+        mockMvc.perform(post("/api/jobs/1/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"password1\" }"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/jobs/999/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"password\": \"password123\" }"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void testDeleteJob() throws Exception {
         // First, create a job
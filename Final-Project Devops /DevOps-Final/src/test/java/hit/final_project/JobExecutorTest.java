@@ -0,0 +1,82 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Polling is left to the test (enabled=false only turns off the scheduled poll) and the simulated handlers finish at once
+@SpringBootTest(properties = {"jobs.executor.enabled=false", "jobs.handlers.simulated-duration=0s"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JobExecutorTest {
+
+    @Autowired
+    private JobExecutor jobExecutor;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Test
+    void testRunsPendingJobsByType() throws InterruptedException {
+        // Seeded jobs: Build/In Progress, Deploy/Pending, Test/Completed
+        Job unknownType = jobService.createJob("Lint Project", JobStatus.PENDING, LocalDateTime.now(), LocalDateTime.now(), null, null);
+
+        assertEquals(2, jobExecutor.claimAndDispatch());
+        assertEquals(0, jobExecutor.claimAndDispatch()); // Claimed jobs are no longer Pending
+
+        assertEquals(JobStatus.COMPLETED, awaitFinished(2L)); // Deploy handler
+        assertEquals(JobStatus.FAILED, awaitFinished(unknownType.getId())); // No handler for the job type
+        assertEquals(JobStatus.IN_PROGRESS, jobRepository.findById(1L).orElseThrow().getStatus()); // Never claimed
+    }
+
+    @Test
+    void testReturnsJobsWithExpiredLeaseToPending() {
+        // Claimed here but never dispatched, as if the instance holding it had died
+        List<Job> claimed = jobService.claimPendingJobs(10, LocalDateTime.now());
+        assertEquals(1, claimed.size());
+        Long id = claimed.get(0).getId();
+
+        assertEquals(0, jobExecutor.renewAndReleaseLeases(LocalDateTime.now())); // Lease still valid
+        assertEquals(1, jobExecutor.renewAndReleaseLeases(LocalDateTime.now().plusHours(1)));
+        assertEquals(JobStatus.PENDING, jobRepository.findById(id).orElseThrow().getStatus());
+        assertEquals(JobStatus.IN_PROGRESS, jobRepository.findById(1L).orElseThrow().getStatus()); // Never claimed
+    }
+
+    @Test
+    void testStaleClaimCannotMoveTheJob() {
+        LocalDateTime now = LocalDateTime.now();
+        Job stale = jobService.claimPendingJobs(10, now).get(0);
+
+        // The lease runs out and another instance claims the job again
+        assertEquals(1, jobExecutor.renewAndReleaseLeases(now.plusHours(1)));
+        Job current = jobService.claimPendingJobs(10, now.plusHours(1)).get(0);
+        assertEquals(stale.getId(), current.getId());
+
+        assertFalse(jobService.transitionJob(stale, JobStatus.IN_PROGRESS, JobStatus.FAILED, now.plusHours(2)));
+        assertEquals(List.of(), jobService.renewClaims(List.of(stale), now.plusHours(2)));
+        assertEquals(List.of(current), jobService.renewClaims(List.of(current), now.plusHours(2)));
+        assertTrue(jobService.transitionJob(current, JobStatus.IN_PROGRESS, JobStatus.COMPLETED, now.plusHours(3)));
+        assertEquals(JobStatus.COMPLETED, jobRepository.findById(current.getId()).orElseThrow().getStatus());
+    }
+
+    private JobStatus awaitFinished(Long id) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            JobStatus status = jobRepository.findById(id).orElseThrow().getStatus();
+            if (status != JobStatus.IN_PROGRESS) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return JobStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,65 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobNameIndexTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final JobNameIndex index = new JobNameIndex(jobRepository, mock(PlatformTransactionManager.class), true);
+
+    private static JobChangeEvent event(JobChangeEvent.Type type, long id, String name, Long version) {
+        return new JobChangeEvent(type, id, name, null, null, null, null, LocalDateTime.now(), version, null);
+    }
+
+    private static JobDTO scanned(long id, String name) {
+        LocalDateTime now = LocalDateTime.now();
+        return new JobDTO(id, name, JobStatus.PENDING, now, now, JobType.BUILD);
+    }
+
+    private List<String> search(String query) {
+        return index.search(query, 10).stream().map(JobNameMatch::jobName).toList();
+    }
+
+    @Test
+    void testSkipsEventsOlderThanTheIndexedName() {
+        when(jobRepository.streamAllSummaries()).thenReturn(Stream.empty());
+        index.build();
+
+        index.onJobChange(event(JobChangeEvent.Type.UPDATED, 1, "Nightly Release", 3L));
+        index.onJobChange(event(JobChangeEvent.Type.CREATED, 1, "Nightly Build", 0L)); // Delivered late
+        index.onJobChange(event(JobChangeEvent.Type.UPDATED, 1, "Nightly Build", null)); // Status update, no version
+
+        assertEquals(List.of("Nightly Release"), search("nightly"));
+
+        index.onJobChange(event(JobChangeEvent.Type.DELETED, 1, "Nightly Release", 3L));
+        index.onJobChange(event(JobChangeEvent.Type.UPDATED, 1, "Nightly Release", 4L)); // Delivered after the delete
+
+        assertEquals(List.of(), search("nightly"));
+    }
+
+    @Test
+    void testChangesDuringBuildWinOverTheScan() {
+        // The scan reads job 1 before it is renamed and job 2 before it is deleted; the events arrive mid-scan
+        when(jobRepository.streamAllSummaries()).thenReturn(Stream.of(scanned(1, "Deploy Web"), scanned(2, "Deploy Api"))
+                .peek(job -> {
+                    if (job.getId() == 2) {
+                        index.onJobChange(event(JobChangeEvent.Type.UPDATED, 1, "Deploy Worker", 1L));
+                        index.onJobChange(event(JobChangeEvent.Type.DELETED, 2, "Deploy Api", 0L));
+                        index.onJobChange(event(JobChangeEvent.Type.CREATED, 3, "Deploy Gateway", 0L));
+                    }
+                }));
+
+        index.build();
+
+        assertEquals(List.of("Deploy Gateway", "Deploy Worker"), search("deploy"));
+    }
+}
@@ -1,19 +1,31 @@
 package hit.final_project;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class JobServiceTest {
@@ -21,11 +33,41 @@ class JobServiceTest {
     @Mock
     private JobRepository jobRepository;
 
-    @InjectMocks
-    private JobService jobService;
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(4, 1, 16); // Low BCrypt cost keeps the tests fast
+
+    @Spy
+    private VerifiedPasswordCache verifiedPasswords = new VerifiedPasswordCache(100, Duration.ofMinutes(1));
+
+    @Spy // Disabled, as by default: updates go straight to the repository
+    private JobStatusWriteBehind statusWriteBehind = new JobStatusWriteBehind(mock(JdbcTemplate.class),
+            mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class), mock(CacheManager.class),
+            new SimpleMeterRegistry(), false, 500);
+
+    @Mock
+    private JobNameIndex nameIndex;
+
+    @Spy
+    private JobHistogramCache histogramCache = new JobHistogramCache(100, Duration.ofMinutes(1));
+
+    private final JobService jobService;
 
     public JobServiceTest() {
         MockitoAnnotations.openMocks(this);
+        jobService = new JobService(jobRepository, entityManager, passwordHasher, transactionManager, eventPublisher,
+                cacheManager, verifiedPasswords, statusWriteBehind, nameIndex, histogramCache, 500, 50);
     }
 
     // Note: This code was created with the help of AI assistance to ensure best practices and thorough testing.
@@ -34,7 +76,7 @@ class JobServiceTest {
     @Test
     void testAddJob() { // Test 1
         // Arrange: Create a Job object with the necessary details
-        Job job = new Job("Test Job", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+        Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
         // Mock the behavior of jobRepository.save() to simulate saving and returning the Job object
         when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> {
@@ -62,10 +104,68 @@ class JobServiceTest {
         verify(jobRepository, times(1)).save(any(Job.class));
     }
 
+    @Test
+    void testAddJobHashesPasswordOnce() {
+        when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Job createdJob = jobService.createJob("Test Job", JobStatus.PENDING, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
+
+        // The stored value is a single BCrypt hash of the raw password, not a hash of a hash
+        assertTrue(new BCryptPasswordEncoder().matches("password", createdJob.getPassword()));
+        verify(passwordHasher, times(1)).hash("password");
+    }
+
+    @Test
+    void testAddJobWithoutPassword() {
+        when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Job createdJob = jobService.createJob("Test Job", JobStatus.PENDING, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, null);
+
+        // No credential means nothing to hash
+        assertNull(createdJob.getPassword());
+        verify(passwordHasher, never()).hash(any());
+    }
+
+    @Test
+    void testUpdateJobPublishesChangeEvent() {
+        Job job = new Job("Test Job", JobStatus.PENDING, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST);
+        when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
+        when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        jobService.updateJob(1L, "Test Job", JobStatus.COMPLETED, LocalDateTime.now(), JobType.TEST, null);
+
+        // The event carries the status before and after the update
+        verify(eventPublisher).publishEvent(argThat((JobChangeEvent event) -> event.type() == JobChangeEvent.Type.UPDATED
+                && event.status() == JobStatus.COMPLETED && event.previousStatus() == JobStatus.PENDING));
+    }
+
+    @Test
+    void testTransitionJobOnlyFromExpectedStatus() {
+        LocalDateTime claimedAt = LocalDateTime.now();
+        Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST);
+        job.setId(1L);
+        job.setClaimedAt(claimedAt);
+        when(jobRepository.transitionStatus(eq(1L), eq(JobStatus.IN_PROGRESS), eq(JobStatus.COMPLETED), eq(claimedAt), any())).thenReturn(1);
+        when(jobRepository.transitionStatus(eq(2L), eq(JobStatus.IN_PROGRESS), eq(JobStatus.COMPLETED), eq(claimedAt), any())).thenReturn(0);
+
+        assertTrue(jobService.transitionJob(job, JobStatus.IN_PROGRESS, JobStatus.COMPLETED, LocalDateTime.now()));
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        verify(eventPublisher).publishEvent(argThat((JobChangeEvent event) -> event.status() == JobStatus.COMPLETED
+                && event.previousStatus() == JobStatus.IN_PROGRESS && event.previousJobType() == JobType.TEST));
+
+        // Someone else changed the job's status meanwhile: nothing is published
+        Job changed = new Job("Other Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST);
+        changed.setId(2L);
+        changed.setClaimedAt(claimedAt);
+        assertFalse(jobService.transitionJob(changed, JobStatus.IN_PROGRESS, JobStatus.COMPLETED, LocalDateTime.now()));
+        assertEquals(JobStatus.IN_PROGRESS, changed.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(JobChangeEvent.class));
+    }
+
     @Test
     void testGetJobById() { // Test 2
         // Arrange: Create a Job object with the necessary details
-        Job job = new Job("Test Job", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+        Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
         // Mock the behavior of jobRepository.findById() to return the job
         when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
@@ -89,7 +189,7 @@ class JobServiceTest {
     @ValueSource(strings = {"In Progress", "Completed", "Pending"})
     @DisplayName("Test Adding Job with Various Statuses")
     void testAddJobWithVariousStatuses(String status) { // Test 1
-        Job job = new Job("Test Job", status, LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+        Job job = new Job("Test Job", JobStatus.fromLabel(status), LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
         when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> {
             Job savedJob = invocation.getArgument(0);
@@ -107,7 +207,7 @@ class JobServiceTest {
         );
 
         assertNotNull(createdJob);
-        assertEquals(status, createdJob.getStatus());
+        assertEquals(status, createdJob.getStatus().label());
         verify(jobRepository, times(1)).save(any(Job.class));
     }
 
@@ -116,7 +216,7 @@ class JobServiceTest {
     @ValueSource(longs = {1L, 2L, 3L})
     @DisplayName("Test Getting Job by Different IDs")
     void testGetJobByDifferentIds(Long id) { // Test 2
-        Job job = new Job("Test Job", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+        Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
         when(jobRepository.findById(id)).thenReturn(Optional.of(job));
 
@@ -127,6 +227,98 @@ class JobServiceTest {
         verify(jobRepository, times(1)).findById(id);
     }
 
+    @Test
+    @DisplayName("Test Repeated Password Checks Skip BCrypt")
+    void testVerifyPasswordIsCached() {
+        String hash = passwordHasher.hash("secret");
+        when(jobRepository.findPasswordById(1L)).thenReturn(Optional.of(hash));
+
+        assertEquals(JobService.PasswordCheck.MATCHED, jobService.verifyPassword(1L, "secret"));
+        assertEquals(JobService.PasswordCheck.MATCHED, jobService.verifyPassword(1L, "secret"));
+        assertEquals(JobService.PasswordCheck.MISMATCHED, jobService.verifyPassword(1L, "wrong"));
+
+        verify(passwordHasher, times(1)).matches("secret", hash); // The second check came from the cache
+        verify(jobRepository, never()).upgradePassword(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test Outdated Password Hash Is Upgraded After a Successful Check")
+    void testVerifyPasswordUpgradesHash() {
+        String hash = passwordHasher.hash("secret");
+        when(jobRepository.findPasswordById(1L)).thenReturn(Optional.of(hash));
+        when(jobRepository.upgradePassword(eq(1L), eq(hash), any())).thenReturn(1);
+        doReturn(true).when(passwordHasher).needsRehash(hash); // As if jobs.hashing.bcrypt-strength had been raised
+
+        assertEquals(JobService.PasswordCheck.MATCHED, jobService.verifyPassword(1L, "secret"));
+
+        verify(jobRepository).upgradePassword(eq(1L), eq(hash), argThat(upgraded ->
+                !upgraded.equals(hash) && new BCryptPasswordEncoder().matches("secret", upgraded)));
+    }
+
+    @Test
+    @DisplayName("Test Password Check for a Job Without a Password or a Missing Job")
+    void testVerifyPasswordWithoutStoredHash() {
+        when(jobRepository.findPasswordById(any())).thenReturn(Optional.empty());
+        when(jobRepository.existsById(1L)).thenReturn(true);
+
+        assertEquals(JobService.PasswordCheck.MISMATCHED, jobService.verifyPassword(1L, "secret"));
+        assertEquals(JobService.PasswordCheck.NOT_FOUND, jobService.verifyPassword(2L, "secret"));
+        verify(passwordHasher, never()).matches(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test Name Search Fallback Finds Word Starts After Any Separator")
+    void testSearchJobsByNameFallbackMatchesWordStarts() {
+        // The name index is not built, so the LIKE scan answers, a page at a time
+        when(nameIndex.search("ap", 2)).thenReturn(null);
+        when(jobRepository.findNameMatches(eq("%ap%"), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(new JobNameMatch(5L, "build-api"), new JobNameMatch(4L, "Rapid Deploy")));
+        when(jobRepository.findNameMatches(eq("%ap%"), eq(4L), any()))
+                .thenReturn(List.of(new JobNameMatch(3L, "API Gateway")));
+
+        List<JobNameMatch> matches = jobService.searchJobsByName("ap", 2);
+
+        assertEquals(List.of(new JobNameMatch(5L, "build-api"), new JobNameMatch(3L, "API Gateway")), matches);
+    }
+
+    @Test
+    @DisplayName("Test Histogram Caches Closed Blocks and Drops Only the Changed One")
+    void testHistogramCachesClosedBlocks() {
+        // Hour buckets are cached a day at a time: Dec 31 and Jan 1 are closed, Jan 2 is still open
+        LocalDateTime now = LocalDateTime.of(2024, 1, 2, 12, 30);
+        LocalDateTime from = LocalDateTime.of(2023, 12, 31, 22, 30);
+        LocalDateTime to = now.plusMinutes(5);
+        LocalDateTime dec31 = LocalDateTime.of(2023, 12, 31, 0, 0);
+        LocalDateTime jan1 = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime jan2 = LocalDateTime.of(2024, 1, 2, 0, 0);
+        JobHistogram.Row head = new JobHistogram.Row(LocalDateTime.of(2023, 12, 31, 22, 0), Map.of("Pending", 1L));
+        JobHistogram.Row beforeRange = new JobHistogram.Row(LocalDateTime.of(2023, 12, 31, 10, 0), Map.of("Pending", 4L));
+        JobHistogram.Row lastHour = new JobHistogram.Row(LocalDateTime.of(2023, 12, 31, 23, 0), Map.of("Failed", 1L));
+        JobHistogram.Row closed = new JobHistogram.Row(LocalDateTime.of(2024, 1, 1, 10, 0), Map.of("Pending", 2L));
+        JobHistogram.Row open = new JobHistogram.Row(LocalDateTime.of(2024, 1, 2, 12, 0), Map.of("Completed", 1L));
+        JobHistogram.Bucket hour = JobHistogram.Bucket.HOUR;
+        JobHistogram.GroupBy byStatus = JobHistogram.GroupBy.STATUS;
+        when(jobRepository.countByCreatedAt(hour, byStatus, from, LocalDateTime.of(2023, 12, 31, 23, 0))).thenReturn(List.of(head));
+        when(jobRepository.countByCreatedAt(hour, byStatus, dec31, jan2)).thenReturn(List.of(beforeRange, lastHour, closed));
+        when(jobRepository.countByCreatedAt(hour, byStatus, jan1, jan2)).thenReturn(List.of(closed));
+        when(jobRepository.countByCreatedAt(hour, byStatus, jan2, to)).thenReturn(List.of(open));
+
+        for (int i = 0; i < 2; i++) {
+            JobHistogram histogram = jobService.getHistogram(from, to, hour, byStatus, now);
+            assertEquals(List.of(head, lastHour, closed, open), histogram.buckets());
+        }
+        verify(jobRepository, times(1)).countByCreatedAt(hour, byStatus, dec31, jan2); // Both days in one query
+        verify(jobRepository, times(2)).countByCreatedAt(hour, byStatus, jan2, to);
+
+        // A job created on Jan 1 changes status: only that day is counted again
+        Job job = new Job("Old Job", JobStatus.FAILED, LocalDateTime.of(2024, 1, 1, 10, 15), now, JobType.BUILD, null);
+        histogramCache.onJobChange(JobChangeEvent.updated(job, JobStatus.PENDING, JobType.BUILD));
+        jobService.getHistogram(from, to, hour, byStatus, now);
+
+        verify(jobRepository, times(1)).countByCreatedAt(hour, byStatus, dec31, jan2);
+        verify(jobRepository, times(1)).countByCreatedAt(hour, byStatus, jan1, jan2);
+    }
+
     // @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@ Nested Test @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
     // מסמנת מחלקות פנימיות שמכילות קבוצות של בדיקות קשורות. מאפשרת ארגון הבדיקות בצורה היררכית לפי נושאים או הקשרים לוגיים.
     @Nested
@@ -136,7 +328,7 @@ class JobServiceTest {
         @Test
         @DisplayName("Test Adding a Job Successfully")
         void testAddJob() { // Test 1
-            Job job = new Job("Test Job", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+            Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
             when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> {
                 Job savedJob = invocation.getArgument(0);
@@ -168,7 +360,7 @@ class JobServiceTest {
         @Test
         @DisplayName("Test Getting a Job by ID Successfully")
         void testGetJobById() { // Test 2
-            Job job = new Job("Test Job", "In Progress", LocalDateTime.now(), LocalDateTime.now(), "Test", "password");
+            Job job = new Job("Test Job", JobStatus.IN_PROGRESS, LocalDateTime.now(), LocalDateTime.now(), JobType.TEST, "password");
 
             when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
 
@@ -209,7 +401,7 @@ class JobServiceTest {
             when(jobRepository.findById(1L)).thenReturn(Optional.empty());
 
             Exception exception = assertThrows(RuntimeException.class, () -> {
-                jobService.updateJob(1L, "Updated Job", "Completed", LocalDateTime.now(), "Test", "password");
+                jobService.updateJob(1L, "Updated Job", JobStatus.COMPLETED, LocalDateTime.now(), JobType.TEST, "password");
             });
 
             String expectedMessage = "Job not found";
@@ -0,0 +1,123 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Flushes are left to the test: the scheduled one is too far apart to run during it
+@SpringBootTest(properties = {
+        "jobs.write-behind.enabled=true",
+        "jobs.write-behind.flush-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JobStatusWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JobStatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobStats jobStats;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testStatusUpdatesAreCoalesced() {
+        // Seeded job 2: Deploy Project, Pending, version 0
+        for (JobStatus status : new JobStatus[]{JobStatus.IN_PROGRESS, JobStatus.FAILED, JobStatus.COMPLETED}) {
+            jobService.updateJob(2L, "Deploy Project", status, LocalDateTime.now(), JobType.DEPLOY, null);
+        }
+
+        assertEquals(JobStatus.COMPLETED, jobService.getJobById(2L).orElseThrow().getStatus()); // Read by ID sees it
+        assertEquals(JobStatus.PENDING, jobRepository.findById(2L).orElseThrow().getStatus()); // Not written yet
+
+        assertEquals(1, statusWriteBehind.flush());
+        Job written = jobRepository.findById(2L).orElseThrow();
+        assertEquals(JobStatus.COMPLETED, written.getStatus());
+        assertEquals(1L, written.getVersion()); // One write for the three updates
+        assertEquals(0, statusWriteBehind.flush());
+        assertEquals(0L, jobStats.snapshot().byStatus().getOrDefault(JobStatus.PENDING.label(), 0L));
+        assertEquals(2L, jobStats.snapshot().byStatus().get(JobStatus.COMPLETED.label()));
+    }
+
+    @Test
+    void testBufferedUpdateEtagMatchesAfterFlush() throws Exception {
+        // Seeded job 2 is at version 0; the buffered status is written as version 1
+        String etag = mockMvc.perform(put("/api/jobs/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Deploy Project\", \"status\": \"Completed\", \"jobType\": \"Deploy\" }"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/jobs/2"))
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        // The conditional update writes the buffered status first, then matches the ETag handed out for it
+        mockMvc.perform(put("/api/jobs/2")
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Renamed Project\", \"status\": \"Completed\", \"jobType\": \"Deploy\" }"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.jobName").value("Renamed Project"));
+
+        // An ETag from before the buffered update is stale
+        mockMvc.perform(put("/api/jobs/2")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Deploy Project\", \"status\": \"Failed\", \"jobType\": \"Deploy\" }"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testDroppedBufferedStatusEvictsTheJob() throws Exception {
+        mockMvc.perform(put("/api/jobs/2") // Caches job 2 at version 0 and hands out version 1
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"jobName\": \"Deploy Project\", \"status\": \"Completed\", \"jobType\": \"Deploy\" }"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        // Another instance updates the row later without touching this cache
+        jdbcTemplate.update("UPDATE app_job SET updated_at = ?, version = version + 2 WHERE id = 2", LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(0, statusWriteBehind.flush());
+        mockMvc.perform(get("/api/jobs/2")) // Re-read, not the cached copy
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.status").value("Pending"));
+    }
+
+    @Test
+    void testDirectUpdateWinsOverOlderBufferedStatus() {
+        jobService.updateJob(2L, "Deploy Project", JobStatus.FAILED, LocalDateTime.now(), JobType.DEPLOY, null);
+        // A new name is not a status-only update, so it is written at once
+        jobService.updateJob(2L, "Renamed Project", JobStatus.IN_PROGRESS, LocalDateTime.now(), JobType.DEPLOY, null);
+
+        assertEquals(0, statusWriteBehind.flush()); // The buffered status is older than the row
+        Job job = jobService.getJobById(2L).orElseThrow();
+        assertEquals("Renamed Project", job.getJobName());
+        assertEquals(JobStatus.IN_PROGRESS, job.getStatus());
+    }
+}
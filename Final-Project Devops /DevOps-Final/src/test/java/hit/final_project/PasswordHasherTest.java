@@ -0,0 +1,68 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test Hashing Uses the Configured Cost Factor")
+    void testHashUsesConfiguredStrength() {
+        passwordHasher = new PasswordHasher(5, 1, 4);
+
+        String hash = passwordHasher.hash("secret");
+
+        assertTrue(hash.startsWith("$2a$05$")); // BCrypt hashes carry their cost factor
+        assertTrue(new BCryptPasswordEncoder().matches("secret", hash));
+    }
+
+    @Test
+    @DisplayName("Test Hashes Made With a Lower Cost Factor Need Rehashing")
+    void testMatchesAndNeedsRehash() {
+        passwordHasher = new PasswordHasher(5, 1, 4);
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(passwordHasher.matches("secret", oldHash));
+        assertFalse(passwordHasher.matches("wrong", oldHash));
+        assertTrue(passwordHasher.needsRehash(oldHash));
+        assertFalse(passwordHasher.needsRehash(passwordHasher.hash("secret")));
+    }
+
+    @Test
+    @DisplayName("Test Full Hashing Queue Rejects New Work")
+    void testFullQueueRejects() throws InterruptedException {
+        // One thread and one queue slot: a blocked task occupies the thread and a hash fills the queue
+        passwordHasher = new PasswordHasher(4, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHasher.executor().execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        CompletableFuture<String> queued = passwordHasher.hashAsync("queued");
+
+        assertThrows(HashingCapacityExceededException.class, () -> passwordHasher.hash("rejected"));
+
+        release.countDown();
+        assertTrue(new BCryptPasswordEncoder().matches("queued", queued.join())); // Queued work still runs
+    }
+}
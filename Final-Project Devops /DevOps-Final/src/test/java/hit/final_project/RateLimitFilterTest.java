@@ -0,0 +1,104 @@
+package hit.final_project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    // 1 request per second with a burst of 2 for every budget
+    private final RateLimitFilter filter = new RateLimitFilter(new LocalRateLimiter(100, Duration.ofMinutes(1)),
+            new SimpleMeterRegistry(), 1, 2, 1, 2, 1, 2);
+
+    private MockHttpServletResponse perform(String method, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/jobs");
+        if (remoteAddress != null) {
+            request.setRemoteAddr(remoteAddress);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testRejectsRequestsBeyondBurst() throws Exception {
+        assertEquals(200, perform("GET", null).getStatus());
+        assertEquals(200, perform("GET", null).getStatus());
+
+        MockHttpServletResponse rejected = perform("GET", null);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testBudgetsAreSeparatePerClientAndRequestClass() throws Exception {
+        perform("GET", "10.0.0.1");
+        perform("GET", "10.0.0.1");
+        assertEquals(429, perform("GET", "10.0.0.1").getStatus());
+
+        assertEquals(200, perform("POST", "10.0.0.1").getStatus()); // The hashing budget is untouched
+        assertEquals(200, perform("GET", "10.0.0.2").getStatus()); // Another client has its own buckets
+    }
+
+    @Test
+    void testApiKeyHeaderDoesNotOpenANewBudget() throws Exception {
+        perform("GET", "10.0.0.1");
+        perform("GET", "10.0.0.1");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/jobs");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-API-Key", "fresh-key");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    void testBatchIsChargedPerPassword() {
+        String client = RateLimitFilter.clientKey("10.0.0.1");
+        assertEquals(0, filter.admit("POST", client)); // The batch request itself: one permit
+        List<Job> jobs = List.of(job("secret1"), job("secret2"), job(null), job("secret3"));
+
+        // Two more passwords than the one paid for: admitted into debt, then the client waits it off
+        assertEquals(0, filter.chargeBatch(client, jobs));
+        assertTrue(filter.admit("PUT", client) > TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, filter.admit("GET", client)); // Reads are not affected
+    }
+
+    @Test
+    void testBucketRefillsAtTheSustainedRate() {
+        GcraBucket bucket = new GcraBucket();
+        RateLimit limit = new RateLimit(10, 1); // One request per 100 ms
+        long now = 0;
+
+        assertEquals(0, bucket.tryAcquire(limit, now));
+        assertEquals(100_000_000, bucket.tryAcquire(limit, now)); // Retry after 100 ms
+        assertEquals(0, bucket.tryAcquire(limit, now + 100_000_000));
+    }
+
+    @Test
+    void testPermitsBeyondBurstAreRepaidBeforeTheNextRequest() {
+        GcraBucket bucket = new GcraBucket();
+        RateLimit limit = new RateLimit(10, 2); // One request per 100 ms, burst of 2
+        long now = 0;
+
+        assertEquals(0, bucket.tryAcquire(limit, 5, now)); // A free permit admits the whole batch
+        assertEquals(400_000_000, bucket.tryAcquire(limit, now)); // 5 permits taken, 2 may be outstanding
+        assertEquals(0, bucket.tryAcquire(limit, now + 400_000_000));
+    }
+
+    private static Job job(String password) {
+        Job job = new Job();
+        job.setPassword(password);
+        return job;
+    }
+}
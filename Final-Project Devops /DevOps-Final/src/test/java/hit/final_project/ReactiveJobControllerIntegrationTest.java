@@ -0,0 +1,144 @@
+package hit.final_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The /api/jobs contract on the reactive stack: the same requests as JobControllerIntegrationTest, served by
+// ReactiveJobController with R2DBC reads. A database of its own, so cached servlet contexts are not affected
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReactiveJobControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JobChangeFeed changeFeed;
+
+    @Test
+    void testGetJobsPageAndJobById() {
+        // Seeded jobs: Build/In Progress, Deploy/Pending, Test/Completed
+        webTestClient.get().uri("/api/jobs?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(JobController.NEXT_AFTER_ID_HEADER, "2")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].jobName").isEqualTo("Build Project")
+                .jsonPath("$[0].status").isEqualTo("In Progress")
+                .jsonPath("$[0].password").doesNotExist();
+
+        webTestClient.get().uri("/api/jobs/2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.jobName").isEqualTo("Deploy Project")
+                .jsonPath("$.jobType").isEqualTo("Deploy");
+
+        webTestClient.get().uri("/api/jobs/999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testFilterSearchAndStream() {
+        webTestClient.get().uri("/api/jobs/status/Pending")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].jobName").isEqualTo("Deploy Project");
+
+        webTestClient.get().uri("/api/jobs/search?jobType=Test")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].status").isEqualTo("Completed");
+
+        List<JobDTO> streamed = webTestClient.get().uri("/api/jobs/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JobDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertEquals(List.of(1L, 2L, 3L), streamed.stream().map(JobDTO::getId).toList());
+
+        webTestClient.get().uri("/api/jobs/status/Unknown")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .value(message -> assertEquals(true, message.contains("In Progress")));
+    }
+
+    @Test
+    void testWritesGoThroughJobService() {
+        webTestClient.post().uri("/api/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{ \"jobName\": \"Reactive Job\", \"status\": \"Pending\", \"jobType\": \"Build\", \"password\": \"password123\" }")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.jobName").isEqualTo("Reactive Job");
+
+        webTestClient.patch().uri("/api/jobs/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue("{ \"status\": \"Completed\" }")
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        // The R2DBC read sees the JPA write, and the stats see its event
+        webTestClient.get().uri("/api/jobs/status/Completed")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/jobs/changes?epoch={epoch}&after=0&timeoutMs=0", changeFeed.epoch())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.changes.length()").isEqualTo(2);
+
+        webTestClient.post().uri("/api/jobs/1/verify")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{ \"password\": \"password1\" }")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.patch().uri("/api/jobs/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{ \"from\": \"Completed\", \"to\": \"Failed\" }")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.affected").isEqualTo(2);
+        webTestClient.delete().uri("/api/jobs")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.delete().uri("/api/jobs/999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
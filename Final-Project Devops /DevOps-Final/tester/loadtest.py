@@ -0,0 +1,76 @@
+# Load test for the CI/CD server - reports throughput and latency percentiles for one endpoint.
+# Run it once against each thread mode or stack to compare them, e.g.:
+#   java -jar app.jar                                    (Spring MVC, platform threads)
+#   java -jar app.jar --spring.profiles.active=virtual   (Spring MVC, virtual threads)
+#   java -jar app.jar --spring.profiles.active=reactive  (WebFlux + R2DBC)
+#   python loadtest.py --concurrency 500 --requests 20000 --path /api/jobs
+# A comma-separated --concurrency runs one round per level (e.g. 50,200,1000 open connections)
+import argparse
+import http.client
+import os
+import threading
+import time
+from concurrent.futures import ThreadPoolExecutor
+from urllib.parse import urlparse
+
+# Base URL for the CI/CD automation server
+Base_URL = os.environ.get("TEST_URL", "http://localhost:8080")
+
+# One keep-alive HTTP connection per client thread (standard library only, so it runs without pip)
+connections = threading.local()
+
+
+def timed_request(url):
+    target = urlparse(url)
+    if not hasattr(connections, "connection"):
+        connections.connection = http.client.HTTPConnection(target.hostname, target.port or 80, timeout=30)
+    start = time.perf_counter()
+    try:
+        connections.connection.request("GET", target.path + ("?" + target.query if target.query else ""))
+        response = connections.connection.getresponse()
+        response.read()
+        ok = response.status == 200
+    except (OSError, http.client.HTTPException):
+        connections.connection.close()  # Reconnect on the next request
+        ok = False
+    return time.perf_counter() - start, ok
+
+
+def percentile(sorted_values, p):
+    index = min(len(sorted_values) - 1, int(round(p / 100.0 * len(sorted_values))) - 1)
+    return sorted_values[max(index, 0)]
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Load test a CI/CD server endpoint")
+    parser.add_argument("--path", default="/api/jobs", help="endpoint to call")
+    parser.add_argument("--concurrency", default="200",
+                        help="number of concurrent clients (one connection each); comma-separated for several rounds")
+    parser.add_argument("--requests", type=int, default=10000, help="total number of requests per round")
+    args = parser.parse_args()
+
+    url = Base_URL + args.path
+    for concurrency in (int(level) for level in args.concurrency.split(",")):
+        run_round(url, concurrency, args.requests)
+
+
+def run_round(url, concurrency, requests):
+    global connections
+    connections = threading.local()  # Fresh connections for every round
+    print(f"GET {url} - {requests} requests, {concurrency} concurrent clients")
+
+    start = time.perf_counter()
+    with ThreadPoolExecutor(max_workers=concurrency) as pool:
+        results = list(pool.map(timed_request, [url] * requests))
+    elapsed = time.perf_counter() - start
+
+    latencies = sorted(latency for latency, _ in results)
+    errors = sum(1 for _, ok in results if not ok)
+    print(f"Throughput: {len(results) / elapsed:.1f} req/s ({errors} errors)")
+    for p in (50, 90, 99):
+        print(f"p{p}: {percentile(latencies, p) * 1000:.1f} ms")
+
+
+# Main
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,56 @@
+# Startup benchmark for the CI/CD server - starts the server and reports the time until the first request succeeds.
+# Compare the default build with the fast-startup build (see the "cds" Maven profile), e.g.:
+#   python startup_time.py -- java -jar target/DevOps-Final-0.0.1-SNAPSHOT.jar
+#   python startup_time.py -- java -XX:SharedArchiveFile=target/application/application.jsa -Dspring.aot.enabled=true \
+#       -jar target/application/DevOps-Final-0.0.1-SNAPSHOT.jar --spring.profiles.active=prod
+import argparse
+import http.client
+import os
+import statistics
+import subprocess
+import time
+from urllib.parse import urlparse
+
+# Base URL for the CI/CD automation server
+Base_URL = os.environ.get("TEST_URL", "http://localhost:8080")
+
+
+def first_request_seconds(command, url, timeout):
+    target = urlparse(url)
+    start = time.perf_counter()
+    server = subprocess.Popen(command, stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+    try:
+        while time.perf_counter() - start < timeout:
+            try:
+                connection = http.client.HTTPConnection(target.hostname, target.port or 80, timeout=5)
+                connection.request("GET", target.path)
+                status = connection.getresponse().status
+                connection.close()
+                if status < 500:
+                    return time.perf_counter() - start
+            except (OSError, http.client.HTTPException):
+                pass  # Not listening yet
+            time.sleep(0.05)
+        raise TimeoutError(f"No response from {url} within {timeout} seconds")
+    finally:
+        server.terminate()
+        server.wait()
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Measure the time to first request of a CI/CD server command")
+    parser.add_argument("--path", default="/api/jobs", help="endpoint to call")
+    parser.add_argument("--runs", type=int, default=5, help="number of starts to measure")
+    parser.add_argument("--timeout", type=float, default=120, help="seconds to wait for each start")
+    parser.add_argument("command", nargs="+", help="command that starts the server")
+    args = parser.parse_args()
+
+    url = Base_URL + args.path
+    times = [first_request_seconds(args.command, url, args.timeout) for _ in range(args.runs)]
+    print(f"Time to first request of {url} over {args.runs} runs:")
+    print(f"median: {statistics.median(times):.2f} s, min: {min(times):.2f} s, max: {max(times):.2f} s")
+
+
+# Main
+if __name__ == "__main__":
+    main()